@@ -0,0 +1,34 @@
+package com.example.minder.config;
+
+import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+@Configuration
+public class GmailClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GmailClientConfig.class);
+
+    // Idle keep-alive connections kept per host by HttpURLConnection (JDK default is 5)
+    @Value("${minder.gmail.max-idle-connections:32}")
+    private int maxIdleConnections;
+
+    @Bean
+    public NetHttpTransport gmailHttpTransport() throws GeneralSecurityException, IOException {
+        // NetHttpTransport pools connections through the JDK keep-alive cache, which only honours
+        // http.maxConnections if it is set before the first connection is opened.
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", String.valueOf(maxIdleConnections));
+        }
+        NetHttpTransport transport = GoogleNetHttpTransport.newTrustedTransport();
+        logger.info("Shared Gmail HTTP transport created (keep-alive pool size: {}).", System.getProperty("http.maxConnections"));
+        return transport;
+    }
+}
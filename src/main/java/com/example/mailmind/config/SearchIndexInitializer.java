@@ -0,0 +1,44 @@
+package com.example.minder.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the FULLTEXT index behind /api/search. JPA cannot declare FULLTEXT indexes, so Hibernate's schema
+ * update never creates it; this runs after the schema is in place and only adds the index when it is missing.
+ */
+@Component
+public class SearchIndexInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexInitializer.class);
+
+    static final String INDEX_NAME = "ft_email_metadata_text";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics " +
+                    "WHERE table_schema = DATABASE() AND table_name = 'email_metadata' AND index_name = ?",
+                    Integer.class, INDEX_NAME);
+            if (existing != null && existing > 0) {
+                return;
+            }
+            logger.info("Creating FULLTEXT index {} on email_metadata (notes, subject, sender).", INDEX_NAME);
+            jdbcTemplate.execute("ALTER TABLE email_metadata ADD FULLTEXT INDEX " + INDEX_NAME + " (notes, subject, sender)");
+        } catch (RuntimeException e) {
+            // Search degrades to errors rather than blocking startup
+            logger.error("Could not create FULLTEXT index {}: {}", INDEX_NAME, e.getMessage(), e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.minder.config;
 
 import com.example.minder.service.CustomOAuth2UserService;
+import com.example.minder.service.CustomOidcUserService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -17,10 +18,12 @@ import org.springframework.security.web.authentication.SimpleUrlAuthenticationSu
 public class SecurityConfig {
 
     private final CustomOAuth2UserService customOAuth2UserService;
+    private final CustomOidcUserService customOidcUserService;
     private final String frontendDashboardUrl = "/ashboard.html";
 
-    public SecurityConfig(CustomOAuth2UserService customOAuth2UserService) {
+    public SecurityConfig(CustomOAuth2UserService customOAuth2UserService, CustomOidcUserService customOidcUserService) {
         this.customOAuth2UserService = customOAuth2UserService;
+        this.customOidcUserService = customOidcUserService;
     }
 
     @Bean
@@ -46,12 +49,16 @@ public class SecurityConfig {
                         "/reminders.html",  
                         "/profile.html",    
                 ).permitAll() 
+                // Instance-wide operational figures, not per-user data
+                .requestMatchers("/api/stats/system").hasRole("ADMIN")
                 .requestMatchers("/api/**").authenticated() 
                 .anyRequest().authenticated() 
             )
             .oauth2Login(oauth2 -> oauth2
                 .userInfoEndpoint(userInfo -> userInfo
                     .userService(customOAuth2UserService)
+                    // Logins with the openid scope bypass userService and go through here
+                    .oidcUserService(customOidcUserService)
                 )
                 .successHandler(authenticationSuccessHandler()) // Uses the bean defined below
             )
@@ -1,48 +1,77 @@
 package com.example.minder.controller;
+import com.example.minder.dto.EmailMetadataSnapshot;
 import com.example.minder.dto.EnrichedEmailDto;
+import com.example.minder.dto.MetadataUpdateItem;
 import com.example.minder.dto.ScheduleAndPriorityRequest; // MODIFIED: Using new DTO
+import com.example.minder.dto.UserSnapshot;
 import com.example.minder.model.EmailMetadata;
-import com.example.minder.model.User;
 import com.example.minder.service.EmailMetadataService;
 import com.example.minder.service.GmailService;
+import com.example.minder.service.InboxSyncService;
+import com.example.minder.service.MetadataStatsService;
+import com.example.minder.service.MinderPrincipal;
+import com.example.minder.service.SystemStatsService;
 import com.example.minder.service.UserService;
 import com.example.minder.dto.PriorityUpdateRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api")
-@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:8080"}, allowCredentials = "true")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000", "http://localhost:8080"}, allowCredentials = "true", exposedHeaders = {"X-Next-Page-Token", "X-Stale-Data"})
 public class EmailController {
 private static final Logger logger = LoggerFactory.getLogger(EmailController.class);
+private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+private static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+private static final String STALE_DATA_HEADER = "X-Stale-Data";
+private static final int MAX_PAGE_SIZE = 500;
+private static final int MAX_BULK_UPDATES = 500;
+private static final int MAX_REMINDER_PAGE_SIZE = 200;
 
 private final GmailService gmailService;
+private final InboxSyncService inboxSyncService;
 private final EmailMetadataService metadataService;
+private final MetadataStatsService statsService;
+private final SystemStatsService systemStatsService;
 private final UserService userService;
 private final OAuth2AuthorizedClientService authorizedClientService;
+private final ObjectMapper objectMapper;
 
 public EmailController(GmailService gmailService,
+                       InboxSyncService inboxSyncService,
                        EmailMetadataService metadataService,
+                       MetadataStatsService statsService,
+                       SystemStatsService systemStatsService,
                        UserService userService,
-                       OAuth2AuthorizedClientService authorizedClientService) {
+                       OAuth2AuthorizedClientService authorizedClientService,
+                       ObjectMapper objectMapper) {
     this.gmailService = gmailService;
+    this.inboxSyncService = inboxSyncService;
     this.metadataService = metadataService;
+    this.statsService = statsService;
+    this.systemStatsService = systemStatsService;
     this.userService = userService;
     this.authorizedClientService = authorizedClientService;
+    this.objectMapper = objectMapper;
 }
 
 private Long getInternalUserId(OAuth2User principal) {
@@ -50,22 +79,26 @@ private Long getInternalUserId(OAuth2User principal) {
         logger.warn("getInternalUserId called with null principal.");
         throw new IllegalStateException("User not authenticated.");
     }
+    if (principal instanceof MinderPrincipal minderPrincipal) {
+        return minderPrincipal.getInternalUserId();
+    }
+    // Sessions created before the principal carried the local user still need a lookup
     String userEmail = principal.getAttribute("email");
     if (userEmail == null) {
         logger.warn("Email attribute not found in principal: {}", principal.getAttributes());
         throw new IllegalStateException("Email not available from authentication provider.");
     }
-    User appUser = userService.findByEmail(userEmail)
+    return userService.findSnapshotByEmail(userEmail)
+            .map(UserSnapshot::id)
             .orElseGet(() -> {
                 logger.warn("Authenticated user with email {} not found in local DB. Creating/updating. This path should ideally be hit only once per user by CustomOAuth2UserService.", userEmail);
                 String googleId = principal.getName();
                 String displayName = principal.getAttribute("name");
-                return userService.createOrUpdateUser(googleId, userEmail, displayName);
+                return userService.resolveLoginUser(googleId, userEmail, displayName).id();
             });
-    return appUser.getId();
 }
 
-private String getGoogleAccessToken(OAuth2AuthenticationToken authentication) {
+private OAuth2AccessToken getGoogleAccessToken(OAuth2AuthenticationToken authentication) {
     if (authentication == null) {
         logger.warn("getGoogleAccessToken called with null authentication token.");
         throw new IllegalStateException("User authentication token not available.");
@@ -79,49 +112,28 @@ private String getGoogleAccessToken(OAuth2AuthenticationToken authentication) {
                 authentication.getName(), authentication.getAuthorizedClientRegistrationId());
         throw new IllegalStateException("Could not obtain access token for Gmail API.");
     }
-    return client.getAccessToken().getTokenValue();
+    return client.getAccessToken();
 }
 
 @GetMapping("/emails")
-public ResponseEntity<?> getEmails(OAuth2AuthenticationToken authentication, @AuthenticationPrincipal OAuth2User principal) {
+public ResponseEntity<?> getEmails(OAuth2AuthenticationToken authentication, @AuthenticationPrincipal OAuth2User principal,
+                                   @RequestParam(required = false) String pageToken,
+                                   @RequestParam(defaultValue = "" + GmailService.DEFAULT_PAGE_SIZE) int pageSize) {
     Long internalUserId = getInternalUserId(principal);
-    String accessToken = getGoogleAccessToken(authentication);
-    logger.info("API CALL: GET /api/emails for internalUserId: {}", internalUserId);
+    OAuth2AccessToken accessToken = getGoogleAccessToken(authentication);
+    logger.info("API CALL: GET /api/emails for internalUserId: {}, pageSize: {}, pageToken: {}", internalUserId, pageSize, pageToken);
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+        return ResponseEntity.badRequest().body(Map.of("error", "pageSize must be between 1 and " + MAX_PAGE_SIZE + "."));
+    }
     try {
-        List<Map<String, Object>> rawEmailsFromGmail = gmailService.fetchImportantEmails(internalUserId, accessToken);
-        List<Map<String, Object>> enrichedEmailMaps = metadataService.enrichEmailsWithMetadata(internalUserId, rawEmailsFromGmail);
-        List<EnrichedEmailDto> emailDtos = enrichedEmailMaps.stream()
-            .map(emailMap -> {
-                LocalDateTime reminderTime = null;
-                Object reminderObj = emailMap.get("reminderDateTime");
-                if (reminderObj instanceof LocalDateTime) {
-                    reminderTime = (LocalDateTime) reminderObj;
-                } else if (reminderObj instanceof String) {
-                    try {
-                        String dateStr = (String) reminderObj;
-                        if (dateStr.endsWith("Z") && dateStr.length() == 20) {
-                            reminderTime = LocalDateTime.parse(dateStr.substring(0, 19));
-                        } else if (dateStr.length() == 19) {
-                             reminderTime = LocalDateTime.parse(dateStr);
-                        } else if (dateStr.length() == 16) {
-                             reminderTime = LocalDateTime.parse(dateStr + ":00");
-                        } else {
-                            reminderTime = LocalDateTime.parse(dateStr);
-                        }
-                    } catch (DateTimeParseException e) {
-                        logger.warn("Could not parse reminderDateTime string: '{}' for email ID: {}", reminderObj, emailMap.get("id"), e);
-                    }
-                }
-                return new EnrichedEmailDto(
-                    (String) emailMap.get("id"), (String) emailMap.get("subject"),
-                    (String) emailMap.get("sender"), (String) emailMap.get("snippet"),
-                    (String) emailMap.get("date"), (String) emailMap.get("currentPriority"),
-                    reminderTime, (String) emailMap.get("notes")
-                );
-            })
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(emailDtos);
-    } catch (IOException | GeneralSecurityException e) {
+        // The default first page is served from the background-synced view when it is fresh
+        GmailService.EmailPage page = (pageToken == null || pageToken.isEmpty()) && pageSize == GmailService.DEFAULT_PAGE_SIZE
+                ? inboxSyncService.getFirstPage(internalUserId, authentication.getAuthorizedClientRegistrationId(),
+                        authentication.getName(), accessToken)
+                : gmailService.fetchImportantEmails(internalUserId, accessToken, pageToken, pageSize);
+        List<EnrichedEmailDto> emailDtos = metadataService.enrichEmailsWithMetadata(internalUserId, page.emails());
+        return withPageHeaders(ResponseEntity.ok(), page.nextPageToken(), page.stale()).body(emailDtos);
+    } catch (IOException e) {
         logger.error("API ERROR: Gmail API interaction failed for userId {}: {}", internalUserId, e.getMessage(), e);
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                              .body(Map.of("error", "Failed to fetch emails from Gmail. Please try again later."));
@@ -134,6 +146,66 @@ public ResponseEntity<?> getEmails(OAuth2AuthenticationToken authentication, @Au
     }
 }
 
+/**
+ * Same page as {@link #getEmails} when called with stream=true, written as newline-delimited JSON with one
+ * EnrichedEmailDto per line as soon as each message is available. The next page token is sent up front in a header.
+ */
+@GetMapping(value = "/emails", params = "stream=true", produces = NDJSON_MEDIA_TYPE)
+public ResponseEntity<?> streamEmails(OAuth2AuthenticationToken authentication, @AuthenticationPrincipal OAuth2User principal,
+                                      @RequestParam(required = false) String pageToken,
+                                      @RequestParam(defaultValue = "" + GmailService.DEFAULT_PAGE_SIZE) int pageSize) {
+    Long internalUserId = getInternalUserId(principal);
+    OAuth2AccessToken accessToken = getGoogleAccessToken(authentication);
+    logger.info("API CALL: GET /api/emails (ndjson) for internalUserId: {}, pageSize: {}, pageToken: {}", internalUserId, pageSize, pageToken);
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                             .body(Map.of("error", "pageSize must be between 1 and " + MAX_PAGE_SIZE + "."));
+    }
+    try {
+        GmailService.MessagePage page = gmailService.listImportantMessages(internalUserId, accessToken, pageToken, pageSize);
+        Map<String, EmailMetadataSnapshot> metadataByMessageId =
+                metadataService.getMetadataByMessageId(internalUserId, page.messageIds());
+        StreamingResponseBody body = outputStream -> {
+            try {
+                gmailService.streamMessageDetails(internalUserId, accessToken, page, email -> {
+                    EnrichedEmailDto dto = metadataService.enrichEmail(email, metadataByMessageId);
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(dto));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return withPageHeaders(ResponseEntity.ok(), page.nextPageToken(), page.stale())
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(body);
+    } catch (IOException e) {
+        logger.error("API ERROR: Gmail API interaction failed for userId {}: {}", internalUserId, e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.APPLICATION_JSON)
+                             .body(Map.of("error", "Failed to fetch emails from Gmail. Please try again later."));
+    } catch (IllegalStateException e) {
+        logger.error("API ERROR: Authentication, token, or state issue for userId {}: {}", internalUserId, e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).contentType(MediaType.APPLICATION_JSON)
+                             .body(Map.of("error", e.getMessage()));
+    }
+}
+
+private ResponseEntity.BodyBuilder withPageHeaders(ResponseEntity.BodyBuilder builder, String nextPageToken, boolean stale) {
+    if (nextPageToken != null) {
+        builder.header(NEXT_PAGE_TOKEN_HEADER, nextPageToken);
+    }
+    if (stale) {
+        // Gmail was unavailable and the page comes from the last successful sync
+        builder.header(STALE_DATA_HEADER, "true");
+    }
+    return builder;
+}
+
 @PostMapping("/emails/{gmailMessageId}/set-schedule-priority") // MODIFIED ENDPOINT NAME AND DTO
 public ResponseEntity<?> setScheduleAndPriority(
         @PathVariable String gmailMessageId,
@@ -156,11 +228,7 @@ public ResponseEntity<?> setScheduleAndPriority(
 
         LocalDateTime reminderTime;
         try {
-            String dateTimeToParse = request.getReminderDateTime();
-            if (dateTimeToParse.length() == 16) {
-                dateTimeToParse += ":00";
-            }
-            reminderTime = LocalDateTime.parse(dateTimeToParse);
+            reminderTime = parseReminderDateTime(request.getReminderDateTime());
         } catch (DateTimeParseException e) {
             logger.warn("API BAD REQUEST: Invalid reminderDateTime format: '{}' for gmailMessageId: {}", request.getReminderDateTime(), gmailMessageId, e);
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid reminder date-time format. Use ISO format (YYYY-MM-DDTHH:mm or YYYY-MM-DDTHH:mm:ss)."));
@@ -179,11 +247,10 @@ public ResponseEntity<?> setScheduleAndPriority(
     } catch (IllegalStateException e) {
         logger.error("API ERROR: Authentication or state issue for userId {}: {}", internalUserId, e.getMessage(), e);
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+    } catch (DataIntegrityViolationException e) {
+        return metadataWriteRejected(internalUserId, gmailMessageId, e);
     } catch (RuntimeException e) {
          logger.error("API ERROR: Scheduling email for internalUserId {}, gmailMessageId {}: {}", internalUserId, gmailMessageId, e.getMessage(), e);
-         if (e.getMessage() != null && e.getMessage().toLowerCase().contains("user not found")) {
-             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
-        }
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error scheduling email."));
     }
 }
@@ -216,30 +283,149 @@ public ResponseEntity<?> updatePriorityOnly(
     } catch (IllegalStateException e) {
         logger.error("API ERROR: Authentication or state issue for userId {}: {}", internalUserId, e.getMessage(), e);
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+    } catch (DataIntegrityViolationException e) {
+        return metadataWriteRejected(internalUserId, gmailMessageId, e);
     } catch (RuntimeException e) {
         logger.error("API ERROR: Setting priority for internalUserId {}, gmailMessageId {}: {}", internalUserId, gmailMessageId, e.getMessage(), e);
-        if (e.getMessage() != null && e.getMessage().toLowerCase().contains("user not found")) {
-             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
-        }
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error setting priority."));
     }
 }
 
+/**
+ * The metadata upserts do not look the user up first, so a user deleted mid-session surfaces as a foreign key
+ * violation. That is a 404; any other constraint violation means the submitted values were rejected.
+ */
+private ResponseEntity<?> metadataWriteRejected(Long internalUserId, String gmailMessageId, DataIntegrityViolationException e) {
+    if (userService.findById(internalUserId).isEmpty()) {
+        logger.warn("API NOT FOUND: internalUserId {} no longer exists; metadata for {} not saved.", internalUserId, gmailMessageId);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "User not found."));
+    }
+    logger.warn("API BAD REQUEST: Metadata for gmailMessageId {} rejected by the database: {}", gmailMessageId, e.getMostSpecificCause().getMessage());
+    return ResponseEntity.badRequest().body(Map.of("error", "Invalid metadata values."));
+}
+
+/**
+ * Applies a page worth of priority/schedule changes in one transaction instead of one request per message.
+ */
+@PostMapping("/emails/metadata/bulk")
+public ResponseEntity<?> bulkUpdateMetadata(
+        @RequestBody List<MetadataUpdateItem> items,
+        @AuthenticationPrincipal OAuth2User principal) {
+    Long internalUserId = getInternalUserId(principal);
+    logger.info("API CALL: POST /api/emails/metadata/bulk for internalUserId: {}, items: {}", internalUserId, items != null ? items.size() : 0);
+    if (items == null || items.isEmpty() || items.size() > MAX_BULK_UPDATES) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Provide between 1 and " + MAX_BULK_UPDATES + " updates."));
+    }
+
+    List<EmailMetadataService.MetadataUpdate> updates = new ArrayList<>(items.size());
+    for (MetadataUpdateItem item : items) {
+        if (item.getGmailMessageId() == null || item.getGmailMessageId().trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Every update needs a gmailMessageId."));
+        }
+        LocalDateTime reminderTime = null;
+        if (item.getReminderDateTime() != null && !item.getReminderDateTime().trim().isEmpty()) {
+            try {
+                reminderTime = parseReminderDateTime(item.getReminderDateTime());
+            } catch (DateTimeParseException e) {
+                logger.warn("API BAD REQUEST: Invalid reminderDateTime format: '{}' for gmailMessageId: {}", item.getReminderDateTime(), item.getGmailMessageId());
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid reminder date-time format for " + item.getGmailMessageId() + ". Use ISO format (YYYY-MM-DDTHH:mm or YYYY-MM-DDTHH:mm:ss)."));
+            }
+        }
+        updates.add(new EmailMetadataService.MetadataUpdate(item.getGmailMessageId(), item.getPriority(), reminderTime,
+                item.getNotes(), item.getSubject(), item.getSender()));
+    }
+
+    try {
+        List<EmailMetadataSnapshot> updated = metadataService.applyBulkUpdates(internalUserId, updates);
+        return ResponseEntity.ok(Map.of("message", "Updated " + updated.size() + " emails", "data", updated));
+    } catch (RuntimeException e) {
+        logger.error("API ERROR: Bulk metadata update for internalUserId {}: {}", internalUserId, e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error applying bulk update."));
+    }
+}
+
+private static LocalDateTime parseReminderDateTime(String value) {
+    String dateTimeToParse = value;
+    if (dateTimeToParse.length() == 16) {
+        dateTimeToParse += ":00";
+    }
+    return LocalDateTime.parse(dateTimeToParse);
+}
+
+/**
+ * Dashboard summary: metadata per priority plus upcoming and overdue reminder counts.
+ */
+@GetMapping("/stats")
+public ResponseEntity<?> getStats(@AuthenticationPrincipal OAuth2User principal) {
+    Long internalUserId = getInternalUserId(principal);
+    logger.info("API CALL: GET /api/stats for internalUserId: {}", internalUserId);
+    try {
+        return ResponseEntity.ok(statsService.getStats(internalUserId));
+    } catch (RuntimeException e) {
+        logger.error("API ERROR: Fetching stats for internalUserId {}: {}", internalUserId, e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error fetching stats."));
+    }
+}
+
+/**
+ * Cache hit ratios and other in-memory figures of the instance that served the request. Admins only
+ * ({@code minder.admin-emails}); see SecurityConfig.
+ */
+@GetMapping("/stats/system")
+public ResponseEntity<SystemStatsService.SystemStats> getSystemStats() {
+    logger.debug("API CALL: GET /api/stats/system");
+    return ResponseEntity.ok(systemStatsService.getStats());
+}
+
+/**
+ * Ranked search over the user's notes, subject and sender. The next page number, if any, is returned in the
+ * X-Next-Page-Token header.
+ */
+@GetMapping("/search")
+public ResponseEntity<?> searchMetadata(@AuthenticationPrincipal OAuth2User principal,
+                                        @RequestParam String q,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "" + EmailMetadataService.DEFAULT_SEARCH_PAGE_SIZE) int size) {
+    Long internalUserId = getInternalUserId(principal);
+    logger.info("API CALL: GET /api/search for internalUserId: {}, page: {}, size: {}", internalUserId, page, size);
+    if (page < 0 || size < 1 || size > EmailMetadataService.MAX_SEARCH_PAGE_SIZE) {
+        return ResponseEntity.badRequest().body(Map.of("error", "page must be 0 or more and size between 1 and " + EmailMetadataService.MAX_SEARCH_PAGE_SIZE + "."));
+    }
+    try {
+        EmailMetadataService.SearchPage results = metadataService.searchMetadata(internalUserId, q, page, size);
+        String nextPage = results.nextPage() != null ? String.valueOf(results.nextPage()) : null;
+        return withPageHeaders(ResponseEntity.ok(), nextPage, false).body(results.results());
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (RuntimeException e) {
+        logger.error("API ERROR: Searching metadata for internalUserId {}: {}", internalUserId, e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error searching emails."));
+    }
+}
+
+/**
+ * Upcoming reminders, soonest first, in keyset pages. The cursor for the next page (pass it back as
+ * {@code after}) is returned in the X-Next-Page-Token header; there is no header on the last page.
+ */
 @GetMapping("/reminders/upcoming")
-public ResponseEntity<?> getUpcomingReminders(@AuthenticationPrincipal OAuth2User principal) {
+public ResponseEntity<?> getUpcomingReminders(@AuthenticationPrincipal OAuth2User principal,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = "" + EmailMetadataService.DEFAULT_REMINDER_PAGE_SIZE) int limit) {
     Long internalUserId = getInternalUserId(principal);
-    logger.info("API CALL: GET /api/reminders/upcoming for internalUserId: {}", internalUserId);
+    logger.info("API CALL: GET /api/reminders/upcoming for internalUserId: {}, after: {}, limit: {}", internalUserId, after, limit);
+    if (limit < 1 || limit > MAX_REMINDER_PAGE_SIZE) {
+        return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_REMINDER_PAGE_SIZE + "."));
+    }
     try {
-        List<EmailMetadata> upcomingReminders = metadataService.getUpcomingReminders(internalUserId);
-        return ResponseEntity.ok(upcomingReminders);
+        EmailMetadataService.ReminderPage page = metadataService.getUpcomingReminders(internalUserId, after, limit);
+        return withPageHeaders(ResponseEntity.ok(), page.nextCursor(), false).body(page.reminders());
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     } catch (IllegalStateException e) {
         logger.error("API ERROR: Authentication or state issue for userId {}: {}", internalUserId, e.getMessage(), e);
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
     } catch (RuntimeException e) {
         logger.error("API ERROR: Fetching upcoming reminders for internalUserId {}: {}", internalUserId, e.getMessage(), e);
-         if (e.getMessage() != null && e.getMessage().toLowerCase().contains("user not found")) {
-             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
-        }
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error fetching upcoming reminders."));
     }
 }
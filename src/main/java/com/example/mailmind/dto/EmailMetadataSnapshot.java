@@ -0,0 +1,19 @@
+package com.example.minder.dto;
+
+import com.example.minder.model.EmailMetadata;
+
+import java.time.LocalDateTime;
+
+/**
+ * Detached copy of an {@link EmailMetadata} row, safe to keep in memory and share between requests.
+ * Serializes with the same property names as the entity, minus the user association.
+ */
+public record EmailMetadataSnapshot(Long id, String gmailMessageId, String priority, LocalDateTime reminderDateTime,
+                                    String notes, String subject, String sender, boolean notified) {
+
+    public static EmailMetadataSnapshot from(EmailMetadata metadata) {
+        return new EmailMetadataSnapshot(metadata.getId(), metadata.getGmailMessageId(), metadata.getPriority(),
+                metadata.getReminderDateTime(), metadata.getNotes(), metadata.getSubject(), metadata.getSender(),
+                metadata.isNotified());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.minder.dto;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 public class EnrichedEmailDto {
@@ -7,7 +8,7 @@ public class EnrichedEmailDto {
     private String subject;
     private String sender;
     private String snippet;
-    private String date; 
+    private Instant date;
     private String currentPriority;
     private LocalDateTime reminderDateTime; 
     private String notes;
@@ -15,7 +16,7 @@ public class EnrichedEmailDto {
     public EnrichedEmailDto() {
     }
 
-    public EnrichedEmailDto(String id, String subject, String sender, String snippet, String date,
+    public EnrichedEmailDto(String id, String subject, String sender, String snippet, Instant date,
                             String currentPriority, LocalDateTime reminderDateTime, String notes) {
         this.id = id;
         this.subject = subject;
@@ -59,11 +60,11 @@ public class EnrichedEmailDto {
         this.snippet = snippet;
     }
 
-    public String getDate() {
+    public Instant getDate() {
         return date;
     }
 
-    public void setDate(String date) {
+    public void setDate(Instant date) {
         this.date = date;
     }
 
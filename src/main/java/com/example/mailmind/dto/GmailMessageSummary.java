@@ -0,0 +1,10 @@
+package com.example.minder.dto;
+
+import java.time.Instant;
+
+/**
+ * The parts of a Gmail message the dashboard shows, as read from the Gmail API.
+ * Immutable, so one instance can be shared between the cache and concurrent requests.
+ */
+public record GmailMessageSummary(String id, String subject, String sender, String snippet, Instant date) {
+}
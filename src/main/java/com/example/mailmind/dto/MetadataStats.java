@@ -0,0 +1,9 @@
+package com.example.minder.dto;
+
+import java.util.Map;
+
+/**
+ * Dashboard summary for one user: metadata rows per priority bucket and reminder counts.
+ */
+public record MetadataStats(long total, Map<String, Long> priorities, long upcomingReminders, long overdueReminders) {
+}
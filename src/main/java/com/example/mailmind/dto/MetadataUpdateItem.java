@@ -0,0 +1,65 @@
+package com.example.minder.dto;
+
+/**
+ * One entry of a bulk metadata update. Fields left null keep their stored value.
+ */
+public class MetadataUpdateItem {
+
+    private String gmailMessageId;
+    private String priority;
+    private String reminderDateTime;
+    private String notes;
+    private String subject;
+    private String sender;
+
+    public MetadataUpdateItem() {
+    }
+
+    public String getGmailMessageId() {
+        return gmailMessageId;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public String getReminderDateTime() {
+        return reminderDateTime;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public void setGmailMessageId(String gmailMessageId) {
+        this.gmailMessageId = gmailMessageId;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public void setReminderDateTime(String reminderDateTime) {
+        this.reminderDateTime = reminderDateTime;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public void setSender(String sender) {
+        this.sender = sender;
+    }
+}
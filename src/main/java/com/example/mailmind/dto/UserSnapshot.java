@@ -0,0 +1,16 @@
+package com.example.minder.dto;
+
+import com.example.minder.model.User;
+
+import java.io.Serializable;
+
+/**
+ * The fields of a local {@link User} that requests need, captured once at login and kept in the session
+ * with the principal. Not an entity, so reading it never touches the database.
+ */
+public record UserSnapshot(Long id, String googleId, String email, String displayName) implements Serializable {
+
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(user.getId(), user.getGoogleId(), user.getEmail(), user.getDisplayName());
+    }
+}
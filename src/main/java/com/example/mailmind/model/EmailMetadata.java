@@ -8,6 +8,11 @@ import java.util.Objects;
 @Table(name = "email_metadata",
        uniqueConstraints = {
            @UniqueConstraint(name = "uk_user_gmail_message", columnNames = {"user_id", "gmail_message_id"})
+       },
+       indexes = {
+           @Index(name = "idx_email_metadata_user_reminder", columnList = "user_id, reminder_date_time"),
+           @Index(name = "idx_email_metadata_user_unsent", columnList = "user_id, is_notified, reminder_date_time"),
+           @Index(name = "idx_email_metadata_unsent_reminder", columnList = "is_notified, reminder_date_time")
        }
 )
 public class EmailMetadata {
@@ -42,6 +47,13 @@ public class EmailMetadata {
     @Column(name = "is_notified", nullable = false)
     private boolean notified = false;
 
+    // Set while an instance holds the reminder for sending; an expired lease may be claimed by another instance
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     public EmailMetadata() {
     }
 
@@ -71,6 +83,10 @@ public class EmailMetadata {
     public void setSender(String sender) { this.sender = sender; }
     public boolean isNotified() { return notified; }
     public void setNotified(boolean notified) { this.notified = notified; }
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,73 @@
+package com.example.minder.model;
+
+import jakarta.persistence.*;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+@Entity
+@Table(name = "gmail_sync_state")
+public class GmailSyncState {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Gmail mailbox historyId as of the last successful sync
+    @Column(name = "history_id", precision = 20, scale = 0)
+    private BigInteger historyId;
+
+    // Comma-separated Gmail message IDs of the last synced list, newest first
+    @Lob
+    @Column(name = "message_ids", columnDefinition = "TEXT")
+    private String messageIds;
+
+    // Gmail page token for the page after the synced one
+    @Column(name = "next_page_token", length = 255)
+    private String nextPageToken;
+
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    public GmailSyncState() {
+    }
+
+    public GmailSyncState(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public BigInteger getHistoryId() { return historyId; }
+    public void setHistoryId(BigInteger historyId) { this.historyId = historyId; }
+    public String getMessageIds() { return messageIds; }
+    public void setMessageIds(String messageIds) { this.messageIds = messageIds; }
+    public String getNextPageToken() { return nextPageToken; }
+    public void setNextPageToken(String nextPageToken) { this.nextPageToken = nextPageToken; }
+    public LocalDateTime getLastSyncedAt() { return lastSyncedAt; }
+    public void setLastSyncedAt(LocalDateTime lastSyncedAt) { this.lastSyncedAt = lastSyncedAt; }
+
+    public List<String> getMessageIdList() {
+        if (messageIds == null || messageIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(messageIds.split(",")));
+    }
+
+    public void recordSync(BigInteger historyId, Collection<String> messageIdList, String nextPageToken) {
+        this.historyId = historyId;
+        this.messageIds = String.join(",", messageIdList);
+        this.nextPageToken = nextPageToken;
+        this.lastSyncedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return "GmailSyncState{" + "userId=" + userId + ", historyId=" + historyId +
+               ", lastSyncedAt=" + lastSyncedAt + '}';
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.minder.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Number of EmailMetadata rows a user has in one priority bucket. Kept up to date by the same transaction
+ * that writes the metadata, and rebuilt from email_metadata by the periodic reconciliation.
+ */
+@Entity
+@Table(name = "user_priority_counter")
+public class PriorityCounter {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "message_count", nullable = false)
+    private long messageCount;
+
+    public PriorityCounter() {
+    }
+
+    // Getters and Setters
+    public Key getKey() { return key; }
+    public void setKey(Key key) { this.key = key; }
+    public long getMessageCount() { return messageCount; }
+    public void setMessageCount(long messageCount) { this.messageCount = messageCount; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "priority", nullable = false, length = 50)
+        private String priority;
+
+        public Key() {
+        }
+
+        public Key(Long userId, String priority) {
+            this.userId = userId;
+            this.priority = priority;
+        }
+
+        public Long getUserId() { return userId; }
+        public String getPriority() { return priority; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return Objects.equals(userId, that.userId) && Objects.equals(priority, that.priority);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, priority);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.minder.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A named lease for a periodic job that only one instance should run at a time.
+ */
+@Entity
+@Table(name = "scheduler_lock")
+public class SchedulerLock {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "lock_owner", length = 64)
+    private String lockOwner;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    public SchedulerLock() {
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getLockOwner() { return lockOwner; }
+    public void setLockOwner(String lockOwner) { this.lockOwner = lockOwner; }
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    @Override
+    public String toString() {
+        return "SchedulerLock{" + "name='" + name + '\'' + ", lockOwner='" + lockOwner + '\'' +
+               ", lockedUntil=" + lockedUntil + '}';
+    }
+}
@@ -1,25 +1,55 @@
 package com.example.minder.repository;
 
+import com.example.minder.dto.EmailMetadataSnapshot;
 import com.example.minder.model.EmailMetadata;
 import com.example.minder.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EmailMetadataRepository extends JpaRepository<EmailMetadata, Long> {
+public interface EmailMetadataRepository extends JpaRepository<EmailMetadata, Long>, EmailMetadataRepositoryCustom {
 
     // Basic finders
     List<EmailMetadata> findByUser(User user);
     List<EmailMetadata> findByUserId(Long userId);
     Optional<EmailMetadata> findByUserAndGmailMessageId(User user, String gmailMessageId);
     Optional<EmailMetadata> findByUserIdAndGmailMessageId(Long userId, String gmailMessageId);
+    Optional<EmailMetadata> findFirstByOrderByIdAsc();
+
+    // Slim lookup for decorating a page of Gmail messages; skips the entity and its user association
+    public interface EmailMetadataSummary {
+        Long getId();
+        String getGmailMessageId();
+        String getPriority();
+        LocalDateTime getReminderDateTime();
+        String getNotes();
+        String getSubject();
+        String getSender();
+        boolean isNotified();
+    }
+    @Query("SELECT em.id as id, " +
+           "em.gmailMessageId as gmailMessageId, " +
+           "em.priority as priority, " +
+           "em.reminderDateTime as reminderDateTime, " +
+           "em.notes as notes, " +
+           "em.subject as subject, " +
+           "em.sender as sender, " +
+           "em.notified as notified " +
+           "FROM EmailMetadata em " +
+           "WHERE em.user.id = :userId AND em.gmailMessageId IN (:gmailMessageIds)")
+    List<EmailMetadataSummary> findSummariesByUserIdAndGmailMessageIdIn(@Param("userId") Long userId,
+                                                                       @Param("gmailMessageIds") Collection<String> gmailMessageIds);
 
     // Finders by priority
     List<EmailMetadata> findByUserAndPriority(User user, String priority);
@@ -37,11 +67,95 @@ public interface EmailMetadataRepository extends JpaRepository<EmailMetadata, Lo
     @Query(value = "SELECT * FROM email_metadata em WHERE LOWER(em.notes) LIKE :processedSearchTerm", nativeQuery = true)
     List<EmailMetadata> findByNotesLikeProcessed(@Param("processedSearchTerm") String processedSearchTerm);
 
-    // Count methods
+    // Ranked search over notes, subject and sender through the ft_email_metadata_text FULLTEXT index.
+    // booleanQuery must already be in MySQL boolean-mode syntax (see EmailMetadataService.searchMetadata).
+    @Query(value = "SELECT em.id AS id, em.gmail_message_id AS gmailMessageId, em.priority AS priority, " +
+                   "em.reminder_date_time AS reminderDateTime, em.notes AS notes, em.subject AS subject, " +
+                   "em.sender AS sender, em.is_notified AS notified " +
+                   "FROM email_metadata em " +
+                   "WHERE em.user_id = :userId AND MATCH(em.notes, em.subject, em.sender) AGAINST (:booleanQuery IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(em.notes, em.subject, em.sender) AGAINST (:booleanQuery IN BOOLEAN MODE) DESC, em.id DESC " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<EmailMetadataSummary> searchByUserId(@Param("userId") Long userId, @Param("booleanQuery") String booleanQuery,
+                                              @Param("limit") int limit, @Param("offset") int offset);
+
+    // Retention: candidates are found with unlocked keyset scans, then re-checked and locked by primary key
+    // right before deletion, so foreground writes only ever wait on the rows actually being deleted.
+    public interface RetentionCandidate {
+        Long getId();
+        Long getUserId();
+        String getGmailMessageId();
+        String getPriority();
+    }
+
+    // Fired reminders are keyset-paged on (reminderDateTime, id) inside idx_email_metadata_unsent_reminder,
+    // so a run only reads the index range of reminders that fired before the cutoff.
+    @Query("SELECT em.id as id, em.reminderDateTime as reminderDateTime FROM EmailMetadata em " +
+           "WHERE em.notified = true AND em.reminderDateTime < :firedBefore " +
+           "ORDER BY em.reminderDateTime ASC, em.id ASC")
+    List<ReminderScheduleEntry> findFiredRemindersForRetention(@Param("firedBefore") LocalDateTime firedBefore, Pageable pageable);
+
+    @Query("SELECT em.id as id, em.reminderDateTime as reminderDateTime FROM EmailMetadata em " +
+           "WHERE em.notified = true AND em.reminderDateTime < :firedBefore " +
+           "AND (em.reminderDateTime > :afterTime OR (em.reminderDateTime = :afterTime AND em.id > :afterId)) " +
+           "ORDER BY em.reminderDateTime ASC, em.id ASC")
+    List<ReminderScheduleEntry> findFiredRemindersForRetentionAfter(@Param("firedBefore") LocalDateTime firedBefore,
+                                                                    @Param("afterTime") LocalDateTime afterTime,
+                                                                    @Param("afterId") Long afterId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT em.id as id, em.user.id as userId, em.gmailMessageId as gmailMessageId, em.priority as priority " +
+           "FROM EmailMetadata em " +
+           "WHERE em.id IN (:ids) AND em.notified = true AND em.reminderDateTime < :firedBefore")
+    List<RetentionCandidate> lockFiredRemindersForRetention(@Param("ids") Collection<Long> ids, @Param("firedBefore") LocalDateTime firedBefore);
+
+    @Query(value = "SELECT em.id FROM email_metadata em " +
+                   "WHERE em.id > :afterId AND (em.priority IS NULL OR em.priority IN ('', 'none')) " +
+                   "AND em.reminder_date_time IS NULL AND (em.notes IS NULL OR em.notes = '') " +
+                   "ORDER BY em.id ASC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findEmptyRowIdsForRetention(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Query(value = "SELECT em.id AS id, em.user_id AS userId, em.gmail_message_id AS gmailMessageId, em.priority AS priority " +
+                   "FROM email_metadata em " +
+                   "WHERE em.id IN (:ids) AND (em.priority IS NULL OR em.priority IN ('', 'none')) " +
+                   "AND em.reminder_date_time IS NULL AND (em.notes IS NULL OR em.notes = '') " +
+                   "FOR UPDATE",
+           nativeQuery = true)
+    List<RetentionCandidate> lockEmptyRowsForRetention(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT em.id as id, em.user.id as userId, em.gmailMessageId as gmailMessageId, em.priority as priority " +
+           "FROM EmailMetadata em " +
+           "WHERE em.user.id = :userId AND em.gmailMessageId IN (:gmailMessageIds)")
+    List<RetentionCandidate> lockByMessageIdsForRetention(@Param("userId") Long userId,
+                                                          @Param("gmailMessageIds") Collection<String> gmailMessageIds);
+
+    // Count methods. Upcoming is a range on idx_email_metadata_user_reminder; overdue is a covering
+    // range on idx_email_metadata_user_unsent, so neither reads table rows.
+    @Query("SELECT COUNT(em) FROM EmailMetadata em WHERE em.user.id = :userId AND em.reminderDateTime > :now")
+    long countUpcomingReminders(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(em) FROM EmailMetadata em WHERE em.user.id = :userId AND em.reminderDateTime <= :now AND em.notified = false")
+    long countOverdueReminders(@Param("userId") Long userId, @Param("now") LocalDateTime now);
     long countByUser(User user);
     long countByUserId(Long userId);
     long countByUserAndPriority(User user, String priority);
 
+    // Counter reconciliation: one user's rows per priority bucket, read with FOR SHARE so the rebuild locks
+    // the metadata rows (and the user's index range) before any counter, in the same order as writers.
+    // Writes for this user wait until the rebuilt counters commit.
+    public interface PriorityBucketCount {
+        String getBucket();
+        Long getMessageCount();
+    }
+    @Query(value = "SELECT COALESCE(NULLIF(em.priority, ''), 'none') AS bucket, COUNT(*) AS messageCount " +
+                   "FROM email_metadata em WHERE em.user_id = :userId " +
+                   "GROUP BY COALESCE(NULLIF(em.priority, ''), 'none') FOR SHARE",
+           nativeQuery = true)
+    List<PriorityBucketCount> lockPriorityCountsForUser(@Param("userId") Long userId);
+
     // Modifying queries
     @Modifying
     @Query("UPDATE EmailMetadata em SET em.priority = :newPriority WHERE em.user.id = :userId")
@@ -51,21 +165,118 @@ public interface EmailMetadataRepository extends JpaRepository<EmailMetadata, Lo
     @Query("DELETE FROM EmailMetadata em WHERE em.user = :user AND (em.priority = 'none' OR em.priority IS NULL OR em.priority = '')")
     int deleteUserMetadataWithNoOrNullPriority(@Param("user") User user);
 
-    // Method for NotificationSchedulerService
-    @Query("SELECT em FROM EmailMetadata em WHERE em.reminderDateTime IS NOT NULL AND em.notified = false AND em.reminderDateTime <= :currentTime")
-    List<EmailMetadata> findDueAndUnnotifiedReminders(@Param("currentTime") LocalDateTime currentTime);
-    public interface EmailReminderDetails {
+    // Atomic upserts on uk_user_gmail_message (MySQL 8.0.19+ row alias syntax). Subject and sender only
+    // overwrite stored values when provided, matching the previous load-then-save behaviour.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO email_metadata (user_id, gmail_message_id, priority, reminder_date_time, notes, subject, sender, is_notified) " +
+                   "VALUES (:userId, :gmailMessageId, :priority, :reminderDateTime, :notes, :subject, :sender, false) AS incoming " +
+                   "ON DUPLICATE KEY UPDATE priority = incoming.priority, reminder_date_time = incoming.reminder_date_time, notes = incoming.notes, " +
+                   "subject = COALESCE(incoming.subject, email_metadata.subject), sender = COALESCE(incoming.sender, email_metadata.sender)",
+           nativeQuery = true)
+    int upsertScheduleAndPriority(@Param("userId") Long userId, @Param("gmailMessageId") String gmailMessageId,
+                                  @Param("reminderDateTime") LocalDateTime reminderDateTime, @Param("priority") String priority,
+                                  @Param("notes") String notes, @Param("subject") String subject, @Param("sender") String sender);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO email_metadata (user_id, gmail_message_id, priority, subject, sender, is_notified) " +
+                   "VALUES (:userId, :gmailMessageId, :priority, :subject, :sender, false) AS incoming " +
+                   "ON DUPLICATE KEY UPDATE priority = incoming.priority",
+           nativeQuery = true)
+    int upsertPriority(@Param("userId") Long userId, @Param("gmailMessageId") String gmailMessageId,
+                       @Param("priority") String priority, @Param("subject") String subject, @Param("sender") String sender);
+
+    // Projection for ReminderDispatcher's in-memory schedule
+    public interface ReminderScheduleEntry {
+        Long getId();
+        LocalDateTime getReminderDateTime();
+    }
+
+    // One horizon of unsent reminders, overdue ones included; served by idx_email_metadata_unsent_reminder.
+    @Query("SELECT em.id as id, em.reminderDateTime as reminderDateTime FROM EmailMetadata em " +
+           "WHERE em.notified = false AND em.reminderDateTime IS NOT NULL AND em.reminderDateTime <= :dueBefore " +
+           "ORDER BY em.reminderDateTime ASC")
+    List<ReminderScheduleEntry> findUnsentRemindersDueBefore(@Param("dueBefore") LocalDateTime dueBefore, Pageable pageable);
+
+    // A due reminder together with its recipient, read in the same statement as the claim so sending
+    // never touches the lazy user association
+    public interface DueReminder {
+        Long getId();
+        Long getUserId();
         String getGmailMessageId();
+        String getPriority();
         LocalDateTime getReminderDateTime();
-        String getSubject();
         String getNotes();
+        String getSubject();
+        String getSender();
+        String getRecipientEmail();
+        String getRecipientName();
     }
-    @Query("SELECT em.gmailMessageId as gmailMessageId, " +
-           "em.reminderDateTime as reminderDateTime, " +
-           "em.subject as subject, " +
-           "em.notes as notes " +
+
+    String DUE_REMINDER_SELECT =
+            "SELECT em.id AS id, em.user_id AS userId, em.gmail_message_id AS gmailMessageId, em.priority AS priority, " +
+            "em.reminder_date_time AS reminderDateTime, em.notes AS notes, em.subject AS subject, em.sender AS sender, " +
+            "u.email AS recipientEmail, u.display_name AS recipientName " +
+            "FROM email_metadata em JOIN users u ON u.id = em.user_id ";
+
+    // Claiming for multiple instances. SKIP LOCKED lets each instance take rows no other one is holding,
+    // and the lease columns keep claimed rows away from others until the lease runs out. FOR UPDATE OF em
+    // leaves the joined user rows unlocked. Chunks are keyset-paged on (reminder_date_time, id), which
+    // idx_email_metadata_unsent_reminder serves in order.
+    @Query(value = DUE_REMINDER_SELECT +
+                   "WHERE em.is_notified = false AND em.reminder_date_time <= :now " +
+                   "AND (em.lease_expires_at IS NULL OR em.lease_expires_at < :now) " +
+                   "ORDER BY em.reminder_date_time ASC, em.id ASC LIMIT :limit FOR UPDATE OF em SKIP LOCKED",
+           nativeQuery = true)
+    List<DueReminder> lockClaimableDueReminders(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = DUE_REMINDER_SELECT +
+                   "WHERE em.is_notified = false AND em.reminder_date_time <= :now " +
+                   "AND (em.lease_expires_at IS NULL OR em.lease_expires_at < :now) " +
+                   "AND (em.reminder_date_time > :afterTime OR (em.reminder_date_time = :afterTime AND em.id > :afterId)) " +
+                   "ORDER BY em.reminder_date_time ASC, em.id ASC LIMIT :limit FOR UPDATE OF em SKIP LOCKED",
+           nativeQuery = true)
+    List<DueReminder> lockClaimableDueRemindersAfter(@Param("now") LocalDateTime now, @Param("afterTime") LocalDateTime afterTime,
+                                                     @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailMetadata em SET em.leaseOwner = :owner, em.leaseExpiresAt = :leaseUntil WHERE em.id IN :ids")
+    int leaseReminders(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Re-locks a claimed chunk before sending; rows whose lease lapsed to another instance drop out.
+    @Query(value = "SELECT em.id FROM email_metadata em " +
+                   "WHERE em.id IN :ids AND em.lease_owner = :owner AND em.is_notified = false FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockLeasedReminders(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    // Locks one due reminder for sending unless another instance holds it, either by row lock or by lease.
+    @Query(value = DUE_REMINDER_SELECT +
+                   "WHERE em.id = :id AND em.is_notified = false AND em.reminder_date_time <= :now " +
+                   "AND (em.lease_expires_at IS NULL OR em.lease_expires_at < :now OR em.lease_owner = :owner) " +
+                   "FOR UPDATE OF em SKIP LOCKED",
+           nativeQuery = true)
+    List<DueReminder> lockDueReminderForSend(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("owner") String owner);
+
+    @Modifying
+    @Query("UPDATE EmailMetadata em SET em.notified = true, em.leaseOwner = NULL, em.leaseExpiresAt = NULL WHERE em.id IN :ids")
+    int markRemindersNotified(@Param("ids") Collection<Long> ids);
+
+    // Keyset pages of upcoming reminders, ordered by (reminderDateTime, id) to match idx_email_metadata_user_reminder.
+    // Pass the page size through Pageable.ofSize so only that many rows are read.
+    @Query("SELECT new com.example.minder.dto.EmailMetadataSnapshot(em.id, em.gmailMessageId, em.priority, em.reminderDateTime, " +
+           "em.notes, em.subject, em.sender, em.notified) " +
            "FROM EmailMetadata em " +
-           "WHERE em.user.id = :userId AND em.reminderDateTime IS NOT NULL AND em.reminderDateTime > :now " +
-           "ORDER BY em.reminderDateTime ASC")
-    List<EmailReminderDetails> findUpcomingReminderDetailsForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+           "WHERE em.user.id = :userId AND em.reminderDateTime > :now " +
+           "ORDER BY em.reminderDateTime ASC, em.id ASC")
+    List<EmailMetadataSnapshot> findUpcomingReminderDetailsForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                                                  Pageable pageable);
+
+    @Query("SELECT new com.example.minder.dto.EmailMetadataSnapshot(em.id, em.gmailMessageId, em.priority, em.reminderDateTime, " +
+           "em.notes, em.subject, em.sender, em.notified) " +
+           "FROM EmailMetadata em " +
+           "WHERE em.user.id = :userId AND em.reminderDateTime > :now " +
+           "AND (em.reminderDateTime > :afterTime OR (em.reminderDateTime = :afterTime AND em.id > :afterId)) " +
+           "ORDER BY em.reminderDateTime ASC, em.id ASC")
+    List<EmailMetadataSnapshot> findUpcomingReminderDetailsForUserAfter(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                                                       @Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+                                                                       Pageable pageable);
 }
@@ -0,0 +1,18 @@
+package com.example.minder.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailMetadataRepositoryCustom {
+
+    /**
+     * Upserts all rows for one user as JDBC batches. Null fields keep the stored value on existing rows.
+     *
+     * @return the number of rows in the request (not the driver's per-row counts, which MySQL reports as 1 or 2)
+     */
+    int batchUpsert(Long userId, List<MetadataUpsert> upserts);
+
+    record MetadataUpsert(String gmailMessageId, String priority, LocalDateTime reminderDateTime,
+                          String notes, String subject, String sender) {
+    }
+}
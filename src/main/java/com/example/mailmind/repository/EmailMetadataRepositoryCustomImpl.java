@@ -0,0 +1,55 @@
+package com.example.minder.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC side of {@link EmailMetadataRepository}. Rows are written with a plain batched statement instead of
+ * entity saves, because IDENTITY keys stop Hibernate from batching inserts. With
+ * rewriteBatchedStatements=true on the MySQL URL each batch goes out as a single multi-row statement.
+ */
+public class EmailMetadataRepositoryCustomImpl implements EmailMetadataRepositoryCustom {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailMetadataRepositoryCustomImpl.class);
+
+    private static final String BATCH_UPSERT_SQL =
+            "INSERT INTO email_metadata (user_id, gmail_message_id, priority, reminder_date_time, notes, subject, sender, is_notified) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, false) AS incoming " +
+            "ON DUPLICATE KEY UPDATE priority = COALESCE(incoming.priority, email_metadata.priority), " +
+            "reminder_date_time = COALESCE(incoming.reminder_date_time, email_metadata.reminder_date_time), " +
+            "notes = COALESCE(incoming.notes, email_metadata.notes), " +
+            "subject = COALESCE(incoming.subject, email_metadata.subject), " +
+            "sender = COALESCE(incoming.sender, email_metadata.sender)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${minder.metadata.batch-size:100}")
+    private int batchSize;
+
+    public EmailMetadataRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int batchUpsert(Long userId, List<MetadataUpsert> upserts) {
+        if (upserts.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(BATCH_UPSERT_SQL, upserts, Math.max(1, batchSize), (statement, upsert) -> {
+            statement.setLong(1, userId);
+            statement.setString(2, upsert.gmailMessageId());
+            statement.setString(3, upsert.priority());
+            statement.setTimestamp(4, upsert.reminderDateTime() != null ? Timestamp.valueOf(upsert.reminderDateTime()) : null);
+            statement.setString(5, upsert.notes());
+            statement.setString(6, upsert.subject());
+            statement.setString(7, upsert.sender());
+        });
+        logger.debug("Batch upserted {} metadata rows for userId: {}", upserts.size(), userId);
+        return upserts.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.minder.repository;
+
+import com.example.minder.model.GmailSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GmailSyncStateRepository extends JpaRepository<GmailSyncState, Long> {
+}
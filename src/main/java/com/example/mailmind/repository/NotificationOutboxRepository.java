@@ -0,0 +1,37 @@
+package com.example.minder.repository;
+
+import com.example.minder.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Oldest ready entries first; served by idx_notification_outbox_ready. SKIP LOCKED and the lease check
+    // let several instances drain the outbox without taking the same rows.
+    @Query(value = "SELECT o.id FROM notification_outbox o " +
+                   "WHERE o.status = 'PENDING' AND o.next_attempt_at <= :now " +
+                   "AND (o.lease_expires_at IS NULL OR o.lease_expires_at < :now) " +
+                   "ORDER BY o.next_attempt_at ASC, o.id ASC LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockReadyIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.leaseOwner = :owner, o.leaseExpiresAt = :leaseUntil WHERE o.id IN :ids")
+    int leaseEntries(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Query("SELECT COUNT(o) FROM NotificationOutbox o WHERE o.status = :status")
+    long countByStatus(@Param("status") NotificationOutbox.Status status);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o " +
+           "WHERE o.status = com.example.minder.model.NotificationOutbox.Status.SENT AND o.sentAt < :sentBefore")
+    int deleteSentBefore(@Param("sentBefore") LocalDateTime sentBefore);
+}
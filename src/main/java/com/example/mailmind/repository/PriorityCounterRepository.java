@@ -0,0 +1,30 @@
+package com.example.minder.repository;
+
+import com.example.minder.model.PriorityCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PriorityCounterRepository extends JpaRepository<PriorityCounter, PriorityCounter.Key> {
+
+    List<PriorityCounter> findByKeyUserId(Long userId);
+
+    // Adds delta (which may be negative) to a bucket, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO user_priority_counter (user_id, priority, message_count) VALUES (:userId, :priority, :delta) AS incoming " +
+                   "ON DUPLICATE KEY UPDATE message_count = user_priority_counter.message_count + incoming.message_count",
+           nativeQuery = true)
+    int adjust(@Param("userId") Long userId, @Param("priority") String priority, @Param("delta") long delta);
+
+    // Reconciliation and user deletion: drops one user's counters. The rebuild share-locks the user's
+    // metadata rows first (EmailMetadataRepository.lockPriorityCountsForUser), taking locks in the same
+    // order as writers, which lock a metadata row and then adjust its counters.
+    @Modifying
+    @Query(value = "DELETE FROM user_priority_counter WHERE user_id = :userId", nativeQuery = true)
+    int deleteCountersForUser(@Param("userId") Long userId);
+}
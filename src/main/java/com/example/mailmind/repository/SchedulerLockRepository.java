@@ -0,0 +1,33 @@
+package com.example.minder.repository;
+
+import com.example.minder.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    // Creates the lock row on first use, already expired so the next acquire takes it
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduler_lock (name, lock_owner, locked_until) VALUES (:name, NULL, '1970-01-01 00:00:00')",
+           nativeQuery = true)
+    int ensureExists(@Param("name") String name);
+
+    // Takes the lease when it has expired, or extends it when this owner already holds it. Returns 1 on success.
+    @Modifying
+    @Query(value = "UPDATE scheduler_lock SET lock_owner = :owner, locked_until = :until " +
+                   "WHERE name = :name AND (locked_until < :now OR lock_owner = :owner)",
+           nativeQuery = true)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+                   @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query(value = "UPDATE scheduler_lock SET locked_until = :now WHERE name = :name AND lock_owner = :owner",
+           nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
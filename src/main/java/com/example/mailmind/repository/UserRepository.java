@@ -1,5 +1,6 @@
 package com.example.minder.repository; // Corrected package
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -38,4 +39,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT DISTINCT u FROM User u JOIN u.emailMetadataEntries e")
     List<User> findUsersWithEmailMetadata();
 
+    // Keyset pages of user IDs for jobs that walk every user
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
 }
\ No newline at end of file
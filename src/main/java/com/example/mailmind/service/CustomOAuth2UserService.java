@@ -1,15 +1,15 @@
 package com.example.minder.service;
 
-import com.example.minder.model.User; 
+import com.example.minder.dto.UserSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
-import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
@@ -25,12 +25,53 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
     @Autowired
     private UserService appUserService; // Your existing UserService to interact with your DB
 
+    @Autowired
+    private InboxSyncService inboxSyncService;
+
+    // Google accounts (by email, comma-separated) that also get ROLE_ADMIN, e.g. for /api/stats/system
+    @Value("${minder.admin-emails:}")
+    private Set<String> adminEmails;
+
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
         OAuth2User oauth2User = super.loadUser(userRequest);
         Map<String, Object> attributes = oauth2User.getAttributes();
 
         String googleId = oauth2User.getName(); 
+        UserSnapshot internalUser = resolveInternalUser(userRequest, googleId, attributes);
+        Set<GrantedAuthority> authorities = authoritiesFor(internalUser); // All OAuth2 users get ROLE_USER
+        String nameAttributeKey = userRequest.getClientRegistration().getProviderDetails()
+                                             .getUserInfoEndpoint().getUserNameAttributeName(); 
+        return new MinderOAuth2User(
+                authorities,
+                attributes,
+                nameAttributeKey,
+                internalUser
+        );
+    }
+
+    /**
+     * ROLE_USER for everyone, plus ROLE_ADMIN for the accounts listed in {@code minder.admin-emails}.
+     */
+    Set<GrantedAuthority> authoritiesFor(UserSnapshot user) {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        if (adminEmails != null && user.email() != null) {
+            for (String adminEmail : adminEmails) {
+                if (adminEmail.trim().equalsIgnoreCase(user.email())) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+                    break;
+                }
+            }
+        }
+        return authorities;
+    }
+
+    /**
+     * Resolves the local user for a Google login and starts warming their inbox. Shared with
+     * {@link CustomOidcUserService}, which handles logins that request the openid scope.
+     */
+    UserSnapshot resolveInternalUser(OAuth2UserRequest userRequest, String googleId, Map<String, Object> attributes) {
         String email = (String) attributes.get("email");
         String displayName = (String) attributes.get("name"); 
 
@@ -40,16 +81,11 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         }
 
         logger.info("Processing OAuth2 user: GoogleID='{}', Email='{}', DisplayName='{}'", googleId, email, displayName);
-        User internalUser = appUserService.createOrUpdateUser(googleId, email, displayName);
-        logger.info("Local user processed: ID='{}', Email='{}'", internalUser.getId(), internalUser.getEmail());
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        authorities.add(new SimpleGrantedAuthority("ROLE_USER")); // Example: all OAuth2 users get ROLE_USER
-        String nameAttributeKey = userRequest.getClientRegistration().getProviderDetails()
-                                             .getUserInfoEndpoint().getUserNameAttributeName(); 
-        return new DefaultOAuth2User(
-                authorities,
-                attributes,
-                nameAttributeKey 
-        );
+        UserSnapshot internalUser = appUserService.resolveLoginUser(googleId, email, displayName);
+        logger.info("Local user processed: ID='{}', Email='{}'", internalUser.id(), internalUser.email());
+        // Warm the inbox while the browser is still following the OAuth redirects
+        inboxSyncService.prefetchOnLogin(internalUser.id(), userRequest.getClientRegistration().getRegistrationId(),
+                googleId, userRequest.getAccessToken());
+        return internalUser;
     }
 }
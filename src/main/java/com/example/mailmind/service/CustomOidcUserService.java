@@ -0,0 +1,49 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.UserSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Google logins request the openid scope, so Spring Security loads them through the OIDC user service
+ * rather than {@link CustomOAuth2UserService}. This resolves the local user the same way and returns a
+ * {@link MinderOidcUser} carrying it.
+ */
+@Service
+public class CustomOidcUserService extends OidcUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomOidcUserService.class);
+
+    // Google's ID token subject, the same value the OAuth2 path reads as the user's name
+    private static final String DEFAULT_NAME_ATTRIBUTE = "sub";
+
+    private final CustomOAuth2UserService oauth2UserService;
+
+    public CustomOidcUserService(CustomOAuth2UserService oauth2UserService) {
+        this.oauth2UserService = oauth2UserService;
+    }
+
+    @Override
+    public OidcUser loadUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
+        OidcUser oidcUser = super.loadUser(userRequest);
+        logger.info("Processing OIDC user: GoogleID='{}', Email='{}'", oidcUser.getSubject(), oidcUser.getEmail());
+        UserSnapshot internalUser = oauth2UserService.resolveInternalUser(userRequest, oidcUser.getSubject(), oidcUser.getAttributes());
+
+        Set<GrantedAuthority> authorities = new HashSet<>(oidcUser.getAuthorities());
+        authorities.addAll(oauth2UserService.authoritiesFor(internalUser));
+        String nameAttributeKey = userRequest.getClientRegistration().getProviderDetails()
+                                             .getUserInfoEndpoint().getUserNameAttributeName();
+        return new MinderOidcUser(authorities, oidcUser.getIdToken(), oidcUser.getUserInfo(),
+                StringUtils.hasText(nameAttributeKey) ? nameAttributeKey : DEFAULT_NAME_ATTRIBUTE, internalUser);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.minder.service;
+
+import com.example.minder.cache.BoundedTtlCache;
+import com.example.minder.dto.EmailMetadataSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Near-cache in front of EmailMetadataRepository. Holds one entry per (user, Gmail message), including
+ * "no metadata" entries since most inbox messages have none, and the first page of each user's upcoming
+ * reminders. {@link EmailMetadataService} writes message entries through on every change, so they never
+ * need to be reloaded before their TTL runs out; a change drops the user's cached reminder page.
+ * <p>
+ * The cache is per instance and only sees this instance's writes, so the TTL is kept short: it bounds how
+ * long another instance's write can go unseen. Every write takes a version from a sequence; a loader
+ * passes the version it started at, and its result is not stored over an entry written after that.
+ */
+@Component
+public class EmailMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailMetadataCache.class);
+
+    private final BoundedTtlCache<MessageKey, Versioned<Optional<EmailMetadataSnapshot>>> messages;
+    // A null page is a marker left by a write, so a load that started before it is not stored
+    private final BoundedTtlCache<Long, Versioned<EmailMetadataService.ReminderPage>> upcomingReminders;
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    public EmailMetadataCache(@Value("${minder.metadata-cache.max-size:100000}") int maxSize,
+                              @Value("${minder.metadata-cache.max-users:10000}") int maxUsers,
+                              @Value("${minder.metadata-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.messages = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.upcomingReminders = new BoundedTtlCache<>(maxUsers, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * Version to pass to {@link #putLoaded} or {@link #putUpcomingReminders}; take it before querying.
+     */
+    public long loadVersion() {
+        return writeSequence.get();
+    }
+
+    /**
+     * Returns null when the message is not cached, and an empty Optional when it is known to have no metadata.
+     */
+    public Optional<EmailMetadataSnapshot> get(Long userId, String gmailMessageId) {
+        Versioned<Optional<EmailMetadataSnapshot>> entry = messages.get(new MessageKey(userId, gmailMessageId));
+        return entry == null ? null : entry.value();
+    }
+
+    public void putLoaded(Long userId, String gmailMessageId, EmailMetadataSnapshot metadata, long loadVersion) {
+        messages.putUnless(new MessageKey(userId, gmailMessageId), new Versioned<>(Optional.ofNullable(metadata), loadVersion),
+                existing -> existing.version() > loadVersion);
+    }
+
+    /**
+     * Returns the user's cached first reminder page without reminders that have since come due, or null
+     * when it is not cached.
+     */
+    public EmailMetadataService.ReminderPage getUpcomingReminders(Long userId) {
+        Versioned<EmailMetadataService.ReminderPage> entry = upcomingReminders.get(userId);
+        if (entry == null || entry.value() == null) {
+            return null;
+        }
+        EmailMetadataService.ReminderPage page = entry.value();
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailMetadataSnapshot> stillUpcoming = page.reminders().stream()
+                .filter(reminder -> reminder.reminderDateTime().isAfter(now)).toList();
+        return new EmailMetadataService.ReminderPage(stillUpcoming, page.nextCursor());
+    }
+
+    public void putUpcomingReminders(Long userId, EmailMetadataService.ReminderPage page, long loadVersion) {
+        upcomingReminders.putUnless(userId, new Versioned<>(page, loadVersion), existing -> existing.version() > loadVersion);
+    }
+
+    /**
+     * Write-through for a saved row: replaces the message entry. The reminder page is dropped rather than
+     * patched, since it is a bounded window and a change can move rows in or out of it.
+     */
+    public void written(Long userId, EmailMetadataSnapshot metadata) {
+        long version = writeSequence.incrementAndGet();
+        messages.put(new MessageKey(userId, metadata.gmailMessageId()), new Versioned<>(Optional.of(metadata), version));
+        upcomingReminders.put(userId, new Versioned<>(null, version));
+    }
+
+    /**
+     * Write-through for a deleted row.
+     */
+    public void deleted(Long userId, String gmailMessageId) {
+        long version = writeSequence.incrementAndGet();
+        messages.put(new MessageKey(userId, gmailMessageId), new Versioned<>(Optional.empty(), version));
+        upcomingReminders.put(userId, new Versioned<>(null, version));
+    }
+
+    @Scheduled(fixedDelayString = "${minder.metadata-cache.sweep-ms:300000}")
+    public void evictExpired() {
+        int evicted = messages.evictExpired() + upcomingReminders.evictExpired();
+        BoundedTtlCache.CacheStats stats = messages.stats();
+        logger.debug("Email metadata cache: {} entries, {} hits, {} misses (hit ratio {}), {} expired entries evicted.",
+                stats.size(), stats.hits(), stats.misses(), String.format("%.2f", stats.hitRatio()), evicted);
+    }
+
+    private record MessageKey(Long userId, String gmailMessageId) {
+    }
+
+    private record Versioned<T>(T value, long version) {
+    }
+}
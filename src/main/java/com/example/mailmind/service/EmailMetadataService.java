@@ -1,15 +1,27 @@
 package com.example.minder.service;
 
+import com.example.minder.dto.EmailMetadataSnapshot;
+import com.example.minder.dto.EnrichedEmailDto;
+import com.example.minder.dto.GmailMessageSummary;
 import com.example.minder.model.EmailMetadata;
-import com.example.minder.model.User;
 import com.example.minder.repository.EmailMetadataRepository;
+import com.example.minder.repository.EmailMetadataRepositoryCustom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,14 +30,27 @@ import java.util.stream.Collectors;
 @Service
 public class EmailMetadataService {
 
+    public static final int DEFAULT_REMINDER_PAGE_SIZE = 50;
+    public static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    public static final int MAX_SEARCH_PAGE_SIZE = 200;
+
+    // InnoDB ignores shorter words (innodb_ft_min_token_size), so they are dropped rather than matched
+    private static final int MIN_SEARCH_TOKEN_LENGTH = 3;
+    private static final int MAX_SEARCH_TOKENS = 8;
+
     private static final Logger logger = LoggerFactory.getLogger(EmailMetadataService.class);
     private final EmailMetadataRepository metadataRepository;
-    private final UserService userService;
+    private final EmailMetadataCache metadataCache;
+    private final MetadataStatsService statsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Optional if this is the only constructor
-    public EmailMetadataService(EmailMetadataRepository metadataRepository, UserService userService) {
+    public EmailMetadataService(EmailMetadataRepository metadataRepository, EmailMetadataCache metadataCache,
+                                MetadataStatsService statsService, ApplicationEventPublisher eventPublisher) {
         this.metadataRepository = metadataRepository;
-        this.userService = userService;
+        this.metadataCache = metadataCache;
+        this.statsService = statsService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -33,37 +58,12 @@ public class EmailMetadataService {
         logger.debug("Setting schedule and priority for userId: {}, gmailMessageId: {}, reminderTime: {}, priority: {}",
                 userId, gmailMessageId, reminderDateTime, priority);
 
-        User user = userService.findById(userId)
-                .orElseThrow(() -> {
-                    logger.error("User not found with ID: {} while setting schedule and priority.", userId);
-                    return new RuntimeException("User not found with ID: " + userId);
-                });
-
-        EmailMetadata metadata = metadataRepository.findByUserAndGmailMessageId(user, gmailMessageId)
-                .orElseGet(() -> {
-                    logger.info("No existing metadata for userId: {}, gmailMessageId: {}. Creating new.", userId, gmailMessageId);
-                    if (subject == null || sender == null) {
-                        logger.warn("Subject or sender is null while creating new metadata for gmailMessageId: {}", gmailMessageId);
-                        // Consider throwing an IllegalArgumentException if subject/sender are strictly required for new entries
-                    }
-                    return new EmailMetadata(user, gmailMessageId, subject, sender);
-                });
-
-        metadata.setReminderDateTime(reminderDateTime);
-        metadata.setPriority(priority);
-        metadata.setNotes(notes);
-        // Ensure subject and sender are set if it's a new metadata object,
-        // or update them if they are provided and different (optional update logic)
-        if (metadata.getId() == null) { // Check if it's a new, unpersisted entity
-            metadata.setSubject(subject);
-            metadata.setSender(sender);
-        } else {
-            
-             if (subject != null && !subject.equals(metadata.getSubject())) metadata.setSubject(subject);
-             if (sender != null && !sender.equals(metadata.getSender())) metadata.setSender(sender);
-        }
-
-        EmailMetadata savedMetadata = metadataRepository.save(metadata);
+        String previousBucket = currentPriorityBucket(userId, gmailMessageId);
+        // One atomic statement: a double-click or a second tab cannot trip the unique constraint
+        metadataRepository.upsertScheduleAndPriority(userId, gmailMessageId, reminderDateTime, priority, notes, subject, sender);
+        EmailMetadata savedMetadata = loadUpserted(userId, gmailMessageId);
+        statsService.recordChange(userId, previousBucket, MetadataStatsService.bucket(savedMetadata.getPriority()));
+        writeThroughAfterCommit(userId, EmailMetadataSnapshot.from(savedMetadata));
         logger.info("Schedule and priority set successfully for metadata ID: {}", savedMetadata.getId());
         return savedMetadata;
     }
@@ -71,114 +71,287 @@ public class EmailMetadataService {
     @Transactional
     public EmailMetadata setPriority(Long userId, String gmailMessageId, String priority, String subject, String sender) { // Method name is now "setPriority"
         logger.debug("Setting priority for userId: {}, gmailMessageId: {}, priority: {}", userId, gmailMessageId, priority);
-        User user = userService.findById(userId)
-                .orElseThrow(() -> {
-                    logger.error("User not found with ID: {} while setting priority.", userId);
-                    return new RuntimeException("User not found with ID: " + userId);
-                });
-        EmailMetadata metadata = metadataRepository.findByUserAndGmailMessageId(user, gmailMessageId)
-                .orElseGet(() -> {
-                    logger.info("No existing metadata for priority update via setPriority. Creating new for userId: {}, gmailMessageId: {}", userId, gmailMessageId);
-                     if (subject == null || sender == null) {
-                        // If subject/sender are truly optional for JUST a priority update on an existing record,
-                        // this path might need adjustment, or the controller should always send them.
-                        // For now, creating new metadata needs them.
-                        logger.warn("Subject or sender is null while attempting to create new metadata via setPriority for gmailMessageId: {}", gmailMessageId);
-                        // Or throw new IllegalArgumentException("Subject and Sender are required to create new metadata.");
-                    }
-                    return new EmailMetadata(user, gmailMessageId, subject, sender);
-                });
-
-        metadata.setPriority(priority);
-        EmailMetadata savedMetadata = metadataRepository.save(metadata);
+        String previousBucket = currentPriorityBucket(userId, gmailMessageId);
+        metadataRepository.upsertPriority(userId, gmailMessageId, priority, subject, sender);
+        EmailMetadata savedMetadata = loadUpserted(userId, gmailMessageId);
+        statsService.recordChange(userId, previousBucket, MetadataStatsService.bucket(savedMetadata.getPriority()));
+        writeThroughAfterCommit(userId, EmailMetadataSnapshot.from(savedMetadata));
         logger.info("Priority set successfully for metadata ID: {}", savedMetadata.getId());
         return savedMetadata;
     }
 
+    /**
+     * Applies many updates in one transaction: one batched upsert plus a read before and after it, however
+     * many messages are involved. If a message appears more than once, the last entry wins.
+     */
+    @Transactional
+    public List<EmailMetadataSnapshot> applyBulkUpdates(Long userId, List<MetadataUpdate> updates) {
+        logger.debug("Applying {} bulk metadata updates for userId: {}", updates.size(), userId);
+        Map<String, EmailMetadataRepositoryCustom.MetadataUpsert> byMessageId = new LinkedHashMap<>();
+        for (MetadataUpdate update : updates) {
+            byMessageId.put(update.gmailMessageId(), new EmailMetadataRepositoryCustom.MetadataUpsert(update.gmailMessageId(),
+                    update.priority(), update.reminderDateTime(), update.notes(), update.subject(), update.sender()));
+        }
+        Map<String, Long> bucketDeltas = new HashMap<>();
+        for (EmailMetadataRepository.EmailMetadataSummary before : metadataRepository.findSummariesByUserIdAndGmailMessageIdIn(userId, byMessageId.keySet())) {
+            bucketDeltas.merge(MetadataStatsService.bucket(before.getPriority()), -1L, Long::sum);
+        }
+        metadataRepository.batchUpsert(userId, new ArrayList<>(byMessageId.values()));
+        List<EmailMetadataSnapshot> saved = metadataRepository.findSummariesByUserIdAndGmailMessageIdIn(userId, byMessageId.keySet()).stream()
+                .map(EmailMetadataService::toSnapshot)
+                .collect(Collectors.toList());
+        for (EmailMetadataSnapshot metadata : saved) {
+            bucketDeltas.merge(MetadataStatsService.bucket(metadata.priority()), 1L, Long::sum);
+            writeThroughAfterCommit(userId, metadata);
+        }
+        statsService.recordChanges(userId, bucketDeltas);
+        logger.info("Bulk metadata update applied to {} messages for userId: {}", saved.size(), userId);
+        return saved;
+    }
+
+    private String currentPriorityBucket(Long userId, String gmailMessageId) {
+        // Unlocked read: a racing write can skew the counters slightly until the next reconciliation
+        List<EmailMetadataRepository.EmailMetadataSummary> current =
+                metadataRepository.findSummariesByUserIdAndGmailMessageIdIn(userId, List.of(gmailMessageId));
+        return current.isEmpty() ? null : MetadataStatsService.bucket(current.get(0).getPriority());
+    }
+
+    private EmailMetadata loadUpserted(Long userId, String gmailMessageId) {
+        // MySQL has no RETURNING clause, so read the row back inside the same transaction
+        return metadataRepository.findByUserIdAndGmailMessageId(userId, gmailMessageId)
+                .orElseThrow(() -> new IllegalStateException("Upserted metadata not found for gmailMessageId: " + gmailMessageId));
+    }
+
     public List<EmailMetadata> getEmailMetadataForUser(Long userId) {
         logger.debug("Fetching all email metadata for userId: {}", userId);
-        if (!userService.findById(userId).isPresent()) { // Ensure user exists
-             logger.error("User not found with ID: {} while fetching metadata.", userId);
-            throw new RuntimeException("User not found with ID: " + userId);
-        }
         return metadataRepository.findByUserId(userId);
     }
 
     public Optional<EmailMetadata> getEmailMetadata(Long userId, String gmailMessageId) {
         logger.debug("Fetching specific email metadata for userId: {}, gmailMessageId: {}", userId, gmailMessageId);
-         if (!userService.findById(userId).isPresent()) { // Ensure user exists
-            logger.warn("Attempted to get metadata for non-existent userId: {}", userId);
-            return Optional.empty(); // Or throw UserNotFoundException
-        }
         return metadataRepository.findByUserIdAndGmailMessageId(userId, gmailMessageId);
     }
-    public List<Map<String, Object>> enrichEmailsWithMetadata(Long userId, List<Map<String, Object>> gmailEmails) {
+    public List<EnrichedEmailDto> enrichEmailsWithMetadata(Long userId, List<GmailMessageSummary> gmailEmails) {
         logger.debug("Enriching {} emails with metadata for userId: {}", gmailEmails != null ? gmailEmails.size() : 0, userId);
         if (gmailEmails == null || gmailEmails.isEmpty()) {
             return Collections.emptyList();
         }
-        // Ensure user exists before proceeding
-        if (!userService.findById(userId).isPresent()) {
-            logger.error("User not found with ID: {} during email enrichment.", userId);
-            return gmailEmails.stream().peek(emailMap -> emailMap.putIfAbsent("currentPriority", "none")).collect(Collectors.toList());
-        }
-
-        List<EmailMetadata> userMetadataList = metadataRepository.findByUserId(userId);
-        Map<String, EmailMetadata> metadataMap = userMetadataList.stream()
-                .collect(Collectors.toMap(EmailMetadata::getGmailMessageId, meta -> meta, (meta1, meta2) -> meta1)); // Keep first in case of theoretical duplicates
+        List<String> messageIds = gmailEmails.stream().map(GmailMessageSummary::id).collect(Collectors.toList());
+        Map<String, EmailMetadataSnapshot> metadataMap = getMetadataByMessageId(userId, messageIds);
+        return gmailEmails.stream().map(email -> enrichEmail(email, metadataMap)).collect(Collectors.toList());
+    }
 
-        return gmailEmails.stream().map(emailMap -> {
-            String gmailId = (String) emailMap.get("id");
-            if (gmailId == null) {
-                logger.warn("Email map found without an 'id' field during enrichment: {}", emailMap);
-                emailMap.putIfAbsent("currentPriority", "none");
-                return emailMap;
-            }
-            EmailMetadata storedMeta = metadataMap.get(gmailId);
-
-            if (storedMeta != null) {
-                emailMap.put("currentPriority", storedMeta.getPriority());
-                emailMap.put("reminderDateTime", storedMeta.getReminderDateTime());
-                emailMap.put("notes", storedMeta.getNotes());
-                if (storedMeta.getSubject() != null) emailMap.put("subject", storedMeta.getSubject());
-                if (storedMeta.getSender() != null) emailMap.put("sender", storedMeta.getSender());
+    /**
+     * Returns the stored metadata for just the given Gmail message IDs, keyed by message ID, for use with
+     * {@link #enrichEmail}. Served from the near-cache where possible; only the misses are queried, and
+     * misses with no row are remembered too. Cost follows the page size rather than how much metadata
+     * the user has.
+     */
+    public Map<String, EmailMetadataSnapshot> getMetadataByMessageId(Long userId, Collection<String> gmailMessageIds) {
+        Map<String, EmailMetadataSnapshot> metadataMap = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String gmailMessageId : gmailMessageIds) {
+            Optional<EmailMetadataSnapshot> cached = metadataCache.get(userId, gmailMessageId);
+            if (cached == null) {
+                misses.add(gmailMessageId);
             } else {
-                emailMap.put("currentPriority", "none");
+                cached.ifPresent(meta -> metadataMap.put(gmailMessageId, meta));
             }
-            return emailMap;
-        }).collect(Collectors.toList());
+        }
+        if (misses.isEmpty()) {
+            return metadataMap;
+        }
+        long loadVersion = metadataCache.loadVersion();
+        Map<String, EmailMetadataSnapshot> loaded = metadataRepository.findSummariesByUserIdAndGmailMessageIdIn(userId, misses).stream()
+                .map(EmailMetadataService::toSnapshot)
+                .collect(Collectors.toMap(EmailMetadataSnapshot::gmailMessageId, meta -> meta, (meta1, meta2) -> meta1)); // Keep first in case of theoretical duplicates
+        for (String gmailMessageId : misses) {
+            metadataCache.putLoaded(userId, gmailMessageId, loaded.get(gmailMessageId), loadVersion);
+        }
+        metadataMap.putAll(loaded);
+        return metadataMap;
     }
 
-    public List<EmailMetadataRepository.EmailReminderDetails> getUpcomingReminderDetails(Long userId) {
-        logger.debug("Fetching upcoming reminder details (projection) for userId: {}", userId);
-        if (!userService.findById(userId).isPresent()) {
-            logger.error("User not found with ID: {} while fetching upcoming reminder details.", userId);
-            throw new RuntimeException("User not found with ID: " + userId);
+    public EnrichedEmailDto enrichEmail(GmailMessageSummary email, Map<String, EmailMetadataSnapshot> metadataMap) {
+        EmailMetadataSnapshot storedMeta = metadataMap.get(email.id());
+        if (storedMeta == null) {
+            return new EnrichedEmailDto(email.id(), email.subject(), email.sender(), email.snippet(), email.date(),
+                    "none", null, null);
         }
-        return metadataRepository.findUpcomingReminderDetailsForUser(userId, LocalDateTime.now());
+        return new EnrichedEmailDto(email.id(),
+                storedMeta.subject() != null ? storedMeta.subject() : email.subject(),
+                storedMeta.sender() != null ? storedMeta.sender() : email.sender(),
+                email.snippet(), email.date(),
+                storedMeta.priority(), storedMeta.reminderDateTime(), storedMeta.notes());
+    }
+
+    private static EmailMetadataSnapshot toSnapshot(EmailMetadataRepository.EmailMetadataSummary summary) {
+        return new EmailMetadataSnapshot(summary.getId(), summary.getGmailMessageId(), summary.getPriority(),
+                summary.getReminderDateTime(), summary.getNotes(), summary.getSubject(), summary.getSender(),
+                summary.isNotified());
     }
 
-   public List<EmailMetadata> getUpcomingReminders(Long userId) {
-        logger.debug("Fetching upcoming reminders (full objects) for userId: {}", userId);
-        if (!userService.findById(userId).isPresent()) {
-            logger.error("User not found with ID: {} for upcoming reminders (full).", userId);
-            throw new RuntimeException("User not found with ID: " + userId);
+    /**
+     * One keyset page of the user's upcoming reminders, soonest first. {@code after} is the nextCursor of the
+     * previous page, or null for the first page. Filtering, ordering and the limit all happen in the database
+     * on idx_email_metadata_user_reminder, so the cost does not grow with the user's reminder history.
+     */
+    public ReminderPage getUpcomingReminders(Long userId, String after, int limit) {
+        boolean defaultFirstPage = after == null && limit == DEFAULT_REMINDER_PAGE_SIZE;
+        if (defaultFirstPage) {
+            ReminderPage cached = metadataCache.getUpcomingReminders(userId);
+            if (cached != null) {
+                return cached;
+            }
         }
-        return metadataRepository.findByUserIdAndReminderDateTimeIsNotNull(userId)
-                .stream()
-                .filter(meta -> meta.getReminderDateTime() != null && meta.getReminderDateTime().isAfter(LocalDateTime.now()))
-                .sorted((m1, m2) -> m1.getReminderDateTime().compareTo(m2.getReminderDateTime()))
+        logger.debug("Fetching upcoming reminders for userId: {}, after: {}, limit: {}", userId, after, limit);
+        long loadVersion = metadataCache.loadVersion();
+        LocalDateTime now = LocalDateTime.now();
+        // One extra row tells us whether there is a next page without a count query
+        Pageable window = Pageable.ofSize(limit + 1);
+        List<EmailMetadataSnapshot> rows;
+        if (after == null) {
+            rows = metadataRepository.findUpcomingReminderDetailsForUser(userId, now, window);
+        } else {
+            ReminderCursor cursor = ReminderCursor.parse(after);
+            rows = metadataRepository.findUpcomingReminderDetailsForUserAfter(userId, now, cursor.reminderDateTime(), cursor.id(), window);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<EmailMetadataSnapshot> reminders = hasMore ? rows.subList(0, limit) : rows;
+        EmailMetadataSnapshot last = reminders.isEmpty() ? null : reminders.get(reminders.size() - 1);
+        ReminderPage page = new ReminderPage(List.copyOf(reminders),
+                hasMore ? new ReminderCursor(last.reminderDateTime(), last.id()).format() : null);
+        if (defaultFirstPage) {
+            metadataCache.putUpcomingReminders(userId, page, loadVersion);
+        }
+        return page;
+    }
+
+    /**
+     * Searches the user's notes, subject and sender, best match first. Every word must match, and the last
+     * word also matches as a prefix, so results narrow as the user types. The page size is clamped to
+     * 1..{@value #MAX_SEARCH_PAGE_SIZE}.
+     *
+     * @throws IllegalArgumentException if the query has no searchable words, or the page is negative or so deep
+     *                                  that its row offset does not fit in an int
+     */
+    public SearchPage searchMetadata(Long userId, String query, int page, int size) {
+        String booleanQuery = toBooleanQuery(query);
+        if (booleanQuery.isEmpty()) {
+            throw new IllegalArgumentException("Search query needs at least one word of " + MIN_SEARCH_TOKEN_LENGTH + " or more characters.");
+        }
+        int boundedSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        long offset = (long) page * boundedSize;
+        if (page < 0 || offset > Integer.MAX_VALUE - boundedSize) {
+            throw new IllegalArgumentException("Search page " + page + " is out of range.");
+        }
+        logger.debug("Searching metadata for userId: {}, query: '{}', page: {}, size: {}", userId, booleanQuery, page, boundedSize);
+        List<EmailMetadataSnapshot> rows = metadataRepository.searchByUserId(userId, booleanQuery, boundedSize + 1, (int) offset).stream()
+                .map(EmailMetadataService::toSnapshot)
                 .collect(Collectors.toList());
+        boolean hasMore = rows.size() > boundedSize;
+        return new SearchPage(hasMore ? rows.subList(0, boundedSize) : rows, hasMore ? page + 1 : null);
+    }
+
+    private static String toBooleanQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        List<String> tokens = new ArrayList<>();
+        // Only letters and digits survive, so user input can never inject boolean-mode operators
+        for (String token : query.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MIN_SEARCH_TOKEN_LENGTH && tokens.size() < MAX_SEARCH_TOKENS) {
+                tokens.add(token);
+            }
+        }
+        StringBuilder booleanQuery = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                booleanQuery.append(' ');
+            }
+            booleanQuery.append('+').append(tokens.get(i));
+            if (i == tokens.size() - 1) {
+                booleanQuery.append('*');
+            }
+        }
+        return booleanQuery.toString();
     }
 
     @Transactional
     public void deleteEmailMetadata(Long metadataId) {
         logger.info("Deleting email metadata with ID: {}", metadataId);
-        if (!metadataRepository.existsById(metadataId)) {
+        Optional<EmailMetadata> existing = metadataRepository.findById(metadataId);
+        if (existing.isEmpty()) {
             logger.warn("EmailMetadata with ID: {} not found for deletion.", metadataId);
             return; // Or throw an exception e.g., ResourceNotFoundException
         }
-        metadataRepository.deleteById(metadataId);
+        Long userId = existing.get().getUser().getId();
+        String gmailMessageId = existing.get().getGmailMessageId();
+        metadataRepository.delete(existing.get());
+        statsService.recordChange(userId, MetadataStatsService.bucket(existing.get().getPriority()), null);
+        afterCommit(() -> {
+            metadataCache.deleted(userId, gmailMessageId);
+            eventPublisher.publishEvent(new ReminderChangedEvent(metadataId, null, false));
+        });
         logger.info("EmailMetadata with ID: {} deleted.", metadataId);
     }
+
+    /**
+     * Writes a saved row through to the near-cache and the reminder dispatcher once it is committed, so a
+     * rollback cannot leave it cached or scheduled.
+     */
+    void writeThroughAfterCommit(Long userId, EmailMetadataSnapshot metadata) {
+        afterCommit(() -> {
+            metadataCache.written(userId, metadata);
+            eventPublisher.publishEvent(new ReminderChangedEvent(metadata.id(), metadata.reminderDateTime(), metadata.notified()));
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * One entry of {@link #applyBulkUpdates}. Null subject and sender keep the stored values.
+     */
+    public record MetadataUpdate(String gmailMessageId, String priority, LocalDateTime reminderDateTime,
+                                 String notes, String subject, String sender) {
+    }
+
+    public record ReminderPage(List<EmailMetadataSnapshot> reminders, String nextCursor) {
+    }
+
+    public record SearchPage(List<EmailMetadataSnapshot> results, Integer nextPage) {
+    }
+
+    /**
+     * Position of the last reminder on a page, sent to clients as "reminderDateTime_id".
+     */
+    private record ReminderCursor(LocalDateTime reminderDateTime, Long id) {
+
+        String format() {
+            return reminderDateTime + "_" + id;
+        }
+
+        static ReminderCursor parse(String value) {
+            int separator = value.lastIndexOf('_');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid reminder cursor: " + value);
+            }
+            try {
+                return new ReminderCursor(LocalDateTime.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid reminder cursor: " + value, e);
+            }
+        }
+    }
 }
@@ -1,11 +1,37 @@
 package com.example.minder.service; // Ensure this matches your actual package structure
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value; // For injecting property value directly
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends mail over a small pool of long-lived SMTP connections instead of one connection per message, so
+ * the TLS handshake and AUTH are paid once per connection. A connection that drops is reopened and the
+ * message retried once; rejections by the server are not retried. Falls back to plain
+ * {@link JavaMailSender#send} when the sender is not a {@link JavaMailSenderImpl}.
+ */
 @Service
 public class EmailSendingService {
 private static final Logger logger = LoggerFactory.getLogger(EmailSendingService.class);
@@ -14,25 +40,51 @@ private final JavaMailSender mailSender;
 @Value("${spring.mail.username}")
 private String mailFromAddress;
 
+@Value("${minder.mail.pool-size:4}")
+private int poolSize;
+
+// Longest wait for a free connection before a send fails
+@Value("${minder.mail.borrow-timeout-ms:30000}")
+private long borrowTimeoutMs;
+
+// Connections idle longer than this are probed (SMTP NOOP) before reuse; servers drop idle sessions
+@Value("${minder.mail.idle-check-ms:30000}")
+private long idleCheckMs;
+
+// One slot per pooled connection; a slot's transport is opened lazily and reopened after failures
+private BlockingQueue<PooledTransport> transportPool;
+
 public EmailSendingService(JavaMailSender mailSender /*, Environment env */) { // Remove env if using @Value
     this.mailSender = mailSender;
     
 }
+
+@PostConstruct
+void initTransportPool() {
+    int size = Math.max(1, poolSize);
+    transportPool = new ArrayBlockingQueue<>(size);
+    for (int i = 0; i < size; i++) {
+        transportPool.add(new PooledTransport());
+    }
+    logger.info("SMTP transport pool sized at {} connections.", size);
+}
+
+@PreDestroy
+void closeTransportPool() {
+    for (PooledTransport pooled : transportPool) {
+        pooled.close();
+    }
+}
+
 public void sendSimpleMessage(String to, String subject, String text) {
     try {
         SimpleMailMessage message = new SimpleMailMessage();
-        String fromAddress = this.mailFromAddress; // Option 2 (using @Value)
-
-        if (fromAddress == null || fromAddress.trim().isEmpty()) {
-            logger.error("Sender email ('spring.mail.username') is not configured in application.properties.");
-            throw new IllegalStateException("Sender email address is not configured.");
-        }
-        message.setFrom(fromAddress);
+        message.setFrom(requireFromAddress());
         message.setTo(to);
         message.setSubject(subject);
         message.setText(text); // Use setText for the body content
 
-        mailSender.send(message);
+        sendOverPool(List.of(message));
         logger.info("Email sent successfully to: {}", to);
 
     } catch (MailException e) { // Catch Spring's specific MailException for better context
@@ -43,4 +95,163 @@ public void sendSimpleMessage(String to, String subject, String text) {
         throw e;
     }
 }
+
+/**
+ * Sends the messages in order over one pooled connection, so a batch pays for at most one handshake.
+ * Callers send in parallel by running several batches at once, up to the pool size. Messages without a
+ * sender get the configured one. Returns the messages that could not be sent, keyed by their position in
+ * {@code messages}; an empty map means everything went out. Throws a {@link MailException} when no
+ * working connection could be had at all.
+ */
+public Map<Integer, Exception> sendBatch(List<SimpleMailMessage> messages) {
+    if (messages.isEmpty()) {
+        return Map.of();
+    }
+    String fromAddress = requireFromAddress();
+    for (SimpleMailMessage message : messages) {
+        if (message.getFrom() == null) {
+            message.setFrom(fromAddress);
+        }
+    }
+    Map<Integer, Exception> failures = sendOverPool(messages);
+    logger.info("Batch of {} emails sent over one connection, {} failed.", messages.size(), failures.size());
+    return failures;
+}
+
+/**
+ * Sends the messages in order over one pooled connection. A single message that fails is reported in
+ * the returned map (for a one-message call, thrown) and the rest continue.
+ */
+private Map<Integer, Exception> sendOverPool(List<SimpleMailMessage> messages) {
+    if (!(mailSender instanceof JavaMailSenderImpl senderImpl)) {
+        mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        return Map.of();
+    }
+    PooledTransport pooled = borrow();
+    Map<Integer, Exception> failures = new LinkedHashMap<>();
+    try {
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                MimeMessage mimeMessage = toMimeMessage(senderImpl, messages.get(i));
+                try {
+                    pooled.send(senderImpl, mimeMessage, idleCheckMs);
+                } catch (MessagingException firstFailure) {
+                    if (!pooled.isConnectionFailure(firstFailure)) {
+                        throw firstFailure;
+                    }
+                    // The session dropped before the message was accepted; reconnect once and retry it
+                    logger.warn("SMTP connection failed ({}); reconnecting.", firstFailure.getMessage());
+                    pooled.close();
+                    pooled.send(senderImpl, mimeMessage, idleCheckMs);
+                }
+            } catch (MessagingException e) {
+                // Rejections leave the session usable; only a broken connection is dropped
+                if (pooled.isConnectionFailure(e)) {
+                    pooled.close();
+                }
+                MailSendException error = new MailSendException("Failed to send message: " + e.getMessage(), e);
+                if (messages.size() == 1) {
+                    throw error;
+                }
+                failures.put(i, error);
+            }
+        }
+    } finally {
+        transportPool.offer(pooled);
+    }
+    return failures;
+}
+private PooledTransport borrow() {
+    try {
+        PooledTransport pooled = transportPool.poll(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        if (pooled == null) {
+            throw new MailSendException("No SMTP connection became free within " + borrowTimeoutMs + " ms");
+        }
+        return pooled;
+    } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+    }
+}
+
+private static MimeMessage toMimeMessage(JavaMailSenderImpl senderImpl, SimpleMailMessage message) throws MessagingException {
+    MimeMessage mimeMessage = senderImpl.createMimeMessage();
+    message.copyTo(new MimeMailMessage(mimeMessage));
+    if (mimeMessage.getSentDate() == null) {
+        mimeMessage.setSentDate(new Date());
+    }
+    mimeMessage.saveChanges();
+    return mimeMessage;
+}
+
+private String requireFromAddress() {
+    String fromAddress = this.mailFromAddress; // Option 2 (using @Value)
+    if (fromAddress == null || fromAddress.trim().isEmpty()) {
+        logger.error("Sender email ('spring.mail.username') is not configured in application.properties.");
+        throw new IllegalStateException("Sender email address is not configured.");
+    }
+    return fromAddress;
+}
+
+private static final class PooledTransport {
+    private Transport transport;
+    private long lastUsedAt;
+
+    void send(JavaMailSenderImpl senderImpl, MimeMessage mimeMessage, long idleCheckMs) throws MessagingException {
+        long now = System.currentTimeMillis();
+        if (transport != null && now - lastUsedAt > idleCheckMs && !transport.isConnected()) {
+            close();
+        }
+        if (transport == null) {
+            // Only a connected transport is kept, so a failed connect or AUTH leaves the slot empty for a retry
+            Transport connecting = senderImpl.getSession().getTransport(senderImpl.getProtocol());
+            try {
+                connecting.connect(senderImpl.getHost(), senderImpl.getPort(), senderImpl.getUsername(), senderImpl.getPassword());
+            } catch (MessagingException | RuntimeException e) {
+                try {
+                    connecting.close();
+                } catch (MessagingException closeFailure) {
+                    logger.debug("Error closing unconnected SMTP transport: {}", closeFailure.getMessage());
+                }
+                throw e;
+            }
+            transport = connecting;
+        }
+        try {
+            transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+        } catch (IllegalStateException e) {
+            // "Not connected": the session died without us noticing; surface it as a connection failure
+            throw new MessagingException("SMTP transport is not connected", e);
+        }
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * True when the failure broke the connection itself (I/O error, server hung up) rather than the server
+     * rejecting the message or some recipients, which resending would repeat or duplicate.
+     */
+    boolean isConnectionFailure(MessagingException failure) {
+        if (failure instanceof SendFailedException || failure instanceof AuthenticationFailedException) {
+            return false;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof IllegalStateException) {
+                return true;
+            }
+        }
+        return transport != null && !transport.isConnected();
+    }
+
+    void close() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP transport: {}", e.getMessage());
+        }
+        transport = null;
+    }
+}
 }
@@ -0,0 +1,78 @@
+package com.example.minder.service;
+
+import com.google.api.client.auth.oauth2.BearerToken;
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.gmail.Gmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class GmailClientProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(GmailClientProvider.class);
+    private static final String APPLICATION_NAME = "MailMinder";
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+    // Used when the provider did not report an expiry for the token
+    private static final Duration DEFAULT_TOKEN_LIFETIME = Duration.ofMinutes(55);
+
+    private final NetHttpTransport httpTransport;
+    private final Map<String, CachedClient> clientsByToken = new ConcurrentHashMap<>();
+
+    @Value("${minder.gmail.client-cache-max-size:1000}")
+    private int maxCachedClients;
+
+    public GmailClientProvider(NetHttpTransport gmailHttpTransport) {
+        this.httpTransport = gmailHttpTransport;
+    }
+
+    public Gmail clientFor(OAuth2AccessToken accessToken) {
+        String tokenValue = accessToken.getTokenValue();
+        Instant now = Instant.now();
+        CachedClient cached = clientsByToken.get(tokenValue);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return cached.client();
+        }
+
+        Instant expiresAt = accessToken.getExpiresAt() != null ? accessToken.getExpiresAt() : now.plus(DEFAULT_TOKEN_LIFETIME);
+        if (clientsByToken.size() >= maxCachedClients) {
+            evictExpiredClients();
+        }
+        Credential credential = new Credential(BearerToken.authorizationHeaderAccessMethod())
+                                    .setAccessToken(tokenValue);
+        Gmail client = new Gmail.Builder(httpTransport, JSON_FACTORY, credential)
+                .setApplicationName(APPLICATION_NAME)
+                .build();
+        if (clientsByToken.size() < maxCachedClients) {
+            clientsByToken.put(tokenValue, new CachedClient(client, expiresAt));
+        } else {
+            logger.warn("Gmail client cache is full ({} entries); serving an uncached client.", clientsByToken.size());
+        }
+        return client;
+    }
+
+    @Scheduled(fixedDelayString = "${minder.gmail.client-cache-sweep-ms:60000}")
+    public void evictExpiredClients() {
+        Instant now = Instant.now();
+        int before = clientsByToken.size();
+        clientsByToken.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+        int evicted = before - clientsByToken.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} Gmail clients with expired access tokens.", evicted);
+        }
+    }
+
+    private record CachedClient(Gmail client, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.minder.service;
+
+import com.example.minder.cache.BoundedTtlCache;
+import com.example.minder.dto.GmailMessageSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Parsed Gmail message metadata (subject, sender, snippet, date) keyed by user and message ID.
+ * Gmail messages are immutable, so entries only leave the cache through size or TTL eviction.
+ */
+@Component
+public class GmailMessageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GmailMessageCache.class);
+
+    private final BoundedTtlCache<MessageKey, GmailMessageSummary> cache;
+
+    public GmailMessageCache(@Value("${minder.gmail.message-cache.max-size:50000}") int maxSize,
+                             @Value("${minder.gmail.message-cache.ttl-minutes:360}") long ttlMinutes) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+    }
+
+    public GmailMessageSummary get(Long userId, String messageId) {
+        return cache.get(new MessageKey(userId, messageId));
+    }
+
+    public void put(Long userId, String messageId, GmailMessageSummary message) {
+        cache.put(new MessageKey(userId, messageId), message);
+    }
+
+    public BoundedTtlCache.CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Scheduled(fixedDelayString = "${minder.gmail.message-cache.sweep-ms:300000}")
+    public void evictExpired() {
+        int evicted = cache.evictExpired();
+        BoundedTtlCache.CacheStats stats = cache.stats();
+        logger.debug("Gmail message cache: {} entries, {} hits, {} misses (hit ratio {}), {} expired entries evicted.",
+                stats.size(), stats.hits(), stats.misses(), String.format("%.2f", stats.hitRatio()), evicted);
+    }
+
+    private record MessageKey(Long userId, String messageId) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.GmailMessageSummary;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+import com.google.api.client.json.gson.GsonFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.time.Instant;
+
+/**
+ * Reads a messages().get response straight into a {@link GmailMessageSummary} with a streaming
+ * JSON parser, instead of materializing the full Message/MessagePart model. Only id, snippet,
+ * internalDate and the Subject/From header values are read; everything else is skipped.
+ */
+final class GmailMessageDecoder {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+    static final String NO_SUBJECT = "(No Subject)";
+    static final String UNKNOWN_SENDER = "(Unknown Sender)";
+
+    private GmailMessageDecoder() {
+    }
+
+    static GmailMessageSummary decode(InputStream content, Charset charset) throws IOException {
+        JsonParser parser = JSON_FACTORY.createJsonParser(content, charset);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Gmail message response is not a JSON object.");
+            }
+            MessageFields fields = new MessageFields();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                switch (fieldName) {
+                    case "id" -> fields.id = textOrNull(parser, valueToken);
+                    case "snippet" -> fields.snippet = textOrNull(parser, valueToken);
+                    case "internalDate" -> {
+                        String internalDate = textOrNull(parser, valueToken);
+                        fields.date = internalDate != null ? Instant.ofEpochMilli(Long.parseLong(internalDate)) : null;
+                    }
+                    case "payload" -> readPayload(parser, valueToken, fields);
+                    default -> parser.skipChildren();
+                }
+            }
+            return new GmailMessageSummary(fields.id,
+                    fields.subject != null ? fields.subject : NO_SUBJECT,
+                    fields.sender != null ? fields.sender : UNKNOWN_SENDER,
+                    fields.snippet != null ? fields.snippet : "",
+                    fields.date);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static void readPayload(JsonParser parser, JsonToken payloadToken, MessageFields fields) throws IOException {
+        if (payloadToken != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("headers".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readHeader(parser, fields);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readHeader(JsonParser parser, MessageFields fields) throws IOException {
+        String headerName = null;
+        String headerValue = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("name".equals(fieldName)) {
+                headerName = textOrNull(parser, valueToken);
+            } else if ("value".equals(fieldName) && (headerName == null || isWanted(headerName))) {
+                // Values of headers already known to be irrelevant are never turned into strings
+                headerValue = textOrNull(parser, valueToken);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (headerName == null || headerValue == null) {
+            return;
+        }
+        if ("Subject".equalsIgnoreCase(headerName)) {
+            fields.subject = headerValue;
+        } else if ("From".equalsIgnoreCase(headerName)) {
+            fields.sender = headerValue;
+        }
+    }
+
+    private static boolean isWanted(String headerName) {
+        return "Subject".equalsIgnoreCase(headerName) || "From".equalsIgnoreCase(headerName);
+    }
+
+    private static String textOrNull(JsonParser parser, JsonToken valueToken) throws IOException {
+        if (valueToken == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static final class MessageFields {
+        private String id;
+        private String snippet;
+        private Instant date;
+        private String subject;
+        private String sender;
+    }
+}
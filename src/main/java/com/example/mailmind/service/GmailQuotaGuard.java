@@ -0,0 +1,255 @@
+package com.example.minder.service;
+
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Every Gmail call goes through here. It reserves Gmail quota units from a global and a per-user
+ * token bucket, retries throttling and server errors with jittered exponential backoff, and trips
+ * a circuit breaker when Gmail keeps failing so callers can fall back to cached data.
+ */
+@Component
+public class GmailQuotaGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(GmailQuotaGuard.class);
+
+    // Quota unit costs from the Gmail API usage limits
+    public static final int MESSAGES_GET_UNITS = 5;
+    public static final int MESSAGES_LIST_UNITS = 5;
+    public static final int HISTORY_LIST_UNITS = 2;
+    public static final int GET_PROFILE_UNITS = 1;
+
+    private final double userUnitsPerSecond;
+    private final TokenBucket globalBucket;
+    private final Map<Long, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final long maxQuotaWaitMillis;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    // Monotonic time source for the buckets and the circuit breaker; System::nanoTime outside tests
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long circuitOpenUntilNanos;
+
+    @Autowired
+    public GmailQuotaGuard(@Value("${minder.gmail.quota.user-units-per-second:250}") double userUnitsPerSecond,
+                           @Value("${minder.gmail.quota.global-units-per-second:20000}") double globalUnitsPerSecond,
+                           @Value("${minder.gmail.quota.max-wait-ms:2000}") long maxQuotaWaitMillis,
+                           @Value("${minder.gmail.retry.max-attempts:4}") int maxAttempts,
+                           @Value("${minder.gmail.retry.base-backoff-ms:200}") long baseBackoffMillis,
+                           @Value("${minder.gmail.retry.max-backoff-ms:5000}") long maxBackoffMillis,
+                           @Value("${minder.gmail.circuit.failure-threshold:5}") int failureThreshold,
+                           @Value("${minder.gmail.circuit.open-seconds:30}") long openSeconds) {
+        this(userUnitsPerSecond, globalUnitsPerSecond, maxQuotaWaitMillis, maxAttempts, baseBackoffMillis,
+                maxBackoffMillis, failureThreshold, openSeconds, System::nanoTime);
+    }
+
+    GmailQuotaGuard(double userUnitsPerSecond, double globalUnitsPerSecond, long maxQuotaWaitMillis, int maxAttempts,
+                    long baseBackoffMillis, long maxBackoffMillis, int failureThreshold, long openSeconds,
+                    LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.userUnitsPerSecond = userUnitsPerSecond;
+        this.globalBucket = new TokenBucket(globalUnitsPerSecond, nanoClock);
+        this.maxQuotaWaitMillis = maxQuotaWaitMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.circuitOpenUntilNanos = nanoClock.getAsLong();
+    }
+
+    @FunctionalInterface
+    public interface GmailCall<T> {
+        T execute() throws IOException;
+    }
+
+    public <T> T execute(Long userId, int quotaUnits, GmailCall<T> call) throws IOException {
+        if (isCircuitOpen()) {
+            throw new GmailUnavailableException("Gmail circuit breaker is open; not calling Gmail for userId " + userId + ".");
+        }
+        TokenBucket userBucket = userBuckets.computeIfAbsent(userId, id -> new TokenBucket(userUnitsPerSecond, nanoClock));
+
+        for (int attempt = 1; ; attempt++) {
+            reserveQuota(userId, userBucket, quotaUnits);
+            try {
+                T result = call.execute();
+                onSuccess(userBucket);
+                return result;
+            } catch (IOException e) {
+                boolean throttled = isThrottled(e);
+                if (!throttled && !isTransient(e)) {
+                    // Client errors such as 404 are the caller's to handle and say nothing about Gmail's health
+                    throw e;
+                }
+                if (throttled) {
+                    userBucket.slowDown();
+                }
+                if (attempt >= maxAttempts) {
+                    onFailure();
+                    logger.warn("Gmail call for userId {} failed after {} attempts: {}", userId, attempt, e.getMessage());
+                    throw e;
+                }
+                long backoffMillis = ThreadLocalRandom.current().nextLong(
+                        Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20)) + 1);
+                logger.debug("Gmail call for userId {} failed (attempt {}/{}): {}. Retrying in {} ms.",
+                        userId, attempt, maxAttempts, e.getMessage(), backoffMillis);
+                sleep(backoffMillis);
+            }
+        }
+    }
+
+    public boolean isCircuitOpen() {
+        return nanoClock.getAsLong() - circuitOpenUntilNanos < 0;
+    }
+
+    @Scheduled(fixedDelayString = "${minder.gmail.quota.sweep-ms:600000}")
+    public void evictIdleUserBuckets() {
+        userBuckets.values().removeIf(TokenBucket::isIdle);
+    }
+
+    private void reserveQuota(Long userId, TokenBucket userBucket, int quotaUnits) throws IOException {
+        long userWaitNanos = userBucket.reserve(quotaUnits);
+        long globalWaitNanos = globalBucket.reserve(quotaUnits);
+        long waitNanos = Math.max(userWaitNanos, globalWaitNanos);
+        if (waitNanos > TimeUnit.MILLISECONDS.toNanos(maxQuotaWaitMillis)) {
+            userBucket.refund(quotaUnits);
+            globalBucket.refund(quotaUnits);
+            throw new GmailUnavailableException("Gmail quota budget exhausted for userId " + userId + ".");
+        }
+        if (waitNanos > 0) {
+            sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+        }
+    }
+
+    private void onSuccess(TokenBucket userBucket) {
+        consecutiveFailures.set(0);
+        userBucket.speedUp();
+    }
+
+    private void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            circuitOpenUntilNanos = nanoClock.getAsLong() + openDurationNanos;
+            // After the cool-down a single further failure re-opens the circuit
+            consecutiveFailures.set(failureThreshold - 1);
+            logger.error("Gmail circuit breaker opened for {} ms after repeated failures.",
+                    TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+        }
+    }
+
+    private static boolean isThrottled(IOException e) {
+        if (!(e instanceof HttpResponseException)) {
+            return false;
+        }
+        int status = ((HttpResponseException) e).getStatusCode();
+        if (status == 429) {
+            return true;
+        }
+        if (status == 403 && e instanceof GoogleJsonResponseException) {
+            GoogleJsonError details = ((GoogleJsonResponseException) e).getDetails();
+            if (details != null && details.getErrors() != null) {
+                for (GoogleJsonError.ErrorInfo error : details.getErrors()) {
+                    String reason = error.getReason();
+                    if ("rateLimitExceeded".equals(reason) || "userRateLimitExceeded".equals(reason)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransient(IOException e) {
+        if (e instanceof GmailUnavailableException) {
+            return false;
+        }
+        if (e instanceof HttpResponseException) {
+            return ((HttpResponseException) e).getStatusCode() >= 500;
+        }
+        // Timeouts, resets and other transport failures
+        return true;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to call Gmail.");
+        }
+    }
+
+    /**
+     * Reservation-style token bucket: callers may drive the balance negative and wait for the
+     * refill, which keeps waiting callers in arrival order. The refill rate backs off on
+     * throttling (multiplicative decrease) and recovers gradually on success (additive increase).
+     */
+    static final class TokenBucket {
+        private static final double MIN_RATE_FRACTION = 0.1;
+        private static final double RECOVERY_FRACTION = 0.02;
+
+        private final double maxRatePerSecond;
+        private double ratePerSecond;
+        private double tokens;
+        private final LongSupplier nanoClock;
+        private long lastRefillNanos;
+
+        TokenBucket(double ratePerSecond, LongSupplier nanoClock) {
+            this.maxRatePerSecond = ratePerSecond;
+            this.ratePerSecond = ratePerSecond;
+            this.tokens = ratePerSecond;
+            this.nanoClock = nanoClock;
+            this.lastRefillNanos = nanoClock.getAsLong();
+        }
+
+        synchronized long reserve(int units) {
+            refill();
+            tokens -= units;
+            return tokens >= 0 ? 0L : (long) (-tokens / ratePerSecond * TimeUnit.SECONDS.toNanos(1));
+        }
+
+        synchronized void refund(int units) {
+            tokens = Math.min(ratePerSecond, tokens + units);
+        }
+
+        synchronized void slowDown() {
+            ratePerSecond = Math.max(maxRatePerSecond * MIN_RATE_FRACTION, ratePerSecond / 2);
+        }
+
+        synchronized void speedUp() {
+            ratePerSecond = Math.min(maxRatePerSecond, ratePerSecond + maxRatePerSecond * RECOVERY_FRACTION);
+        }
+
+        synchronized boolean isIdle() {
+            refill();
+            return tokens >= ratePerSecond && ratePerSecond >= maxRatePerSecond;
+        }
+
+        private void refill() {
+            long now = nanoClock.getAsLong();
+            double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            // One second of burst capacity
+            tokens = Math.min(ratePerSecond, tokens + elapsedSeconds * ratePerSecond);
+            lastRefillNanos = now;
+        }
+    }
+}
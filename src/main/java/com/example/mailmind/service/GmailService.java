@@ -1,83 +1,203 @@
 package com.example.minder.service;
-import com.google.api.client.auth.oauth2.BearerToken;
-import com.google.api.client.auth.oauth2.Credential;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
+import com.example.minder.dto.GmailMessageSummary;
+import com.example.minder.model.GmailSyncState;
+import com.example.minder.repository.GmailSyncStateRepository;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpResponse;
 import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryLabelAdded;
+import com.google.api.services.gmail.model.HistoryLabelRemoved;
+import com.google.api.services.gmail.model.HistoryMessageAdded;
+import com.google.api.services.gmail.model.HistoryMessageDeleted;
+import com.google.api.services.gmail.model.ListHistoryResponse;
 import com.google.api.services.gmail.model.ListMessagesResponse;
 import com.google.api.services.gmail.model.Message;
-import com.google.api.services.gmail.model.MessagePartHeader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
-import java.security.GeneralSecurityException;
-import java.time.Instant;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 @Service
 public class GmailService {
 private static final Logger logger = LoggerFactory.getLogger(GmailService.class);
-private static final String APPLICATION_NAME = "MailMinder";
-private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
 private static final String USER_IDENTIFIER = "me";
+private static final String IMPORTANT_QUERY = "is:important in:inbox";
+public static final int DEFAULT_PAGE_SIZE = 15;
+private static final int MAX_PAGE_SIZE = 500; // Gmail caps messages.list at 500 results
+private static final String INBOX_LABEL = "INBOX";
+private static final String IMPORTANT_LABEL = "IMPORTANT";
+private static final List<String> METADATA_HEADERS = List.of("Subject", "From");
+private static final List<String> HISTORY_TYPES = List.of("messageAdded", "messageDeleted", "labelAdded", "labelRemoved");
 
-public List<Map<String, Object>> fetchImportantEmails(Long userId, String accessToken)
-        throws IOException, GeneralSecurityException {
+private final GmailClientProvider gmailClientProvider;
+private final GmailSyncStateRepository syncStateRepository;
+private final GmailMessageCache messageCache;
+private final GmailQuotaGuard quotaGuard;
+private final MetadataRetentionService retentionService;
 
-    logger.info("Fetching important emails for userId: {} using real Gmail API.", userId);
+// Upper bound on in-flight messages().get calls across all requests
+@Value("${minder.gmail.fetch-concurrency:16}")
+private int fetchConcurrency;
 
-    if (accessToken == null || accessToken.trim().isEmpty()) {
-        logger.error("Access token is null or empty for userId: {}. Cannot fetch emails.", userId);
-        return Collections.emptyList();
-    }
-    logger.debug("Using Access Token for userId: {} (Token starts with: {})", userId,
-            accessToken.length() > 10 ? accessToken.substring(0, 10) + "..." : accessToken);
+private ExecutorService fetchExecutor;
 
-    final NetHttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
-    Credential credential = new Credential(BearerToken.authorizationHeaderAccessMethod())
-                                .setAccessToken(accessToken);
-
-    Gmail service = new Gmail.Builder(HTTP_TRANSPORT, JSON_FACTORY, credential)
-            .setApplicationName(APPLICATION_NAME)
-            .build();
+public GmailService(GmailClientProvider gmailClientProvider, GmailSyncStateRepository syncStateRepository,
+                    GmailMessageCache messageCache, GmailQuotaGuard quotaGuard, MetadataRetentionService retentionService) {
+    this.gmailClientProvider = gmailClientProvider;
+    this.syncStateRepository = syncStateRepository;
+    this.messageCache = messageCache;
+    this.quotaGuard = quotaGuard;
+    this.retentionService = retentionService;
+}
 
-    List<Map<String, Object>> fetchedEmails = new ArrayList<>();
+@PostConstruct
+void initFetchExecutor() {
+    int poolSize = Math.max(1, fetchConcurrency);
+    AtomicInteger threadCounter = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+        Thread thread = new Thread(runnable, "gmail-fetch-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    };
+    fetchExecutor = Executors.newFixedThreadPool(poolSize, threadFactory);
+    logger.info("Gmail message fetch pool started with {} threads.", poolSize);
+}
 
+@PreDestroy
+void shutdownFetchExecutor() {
+    fetchExecutor.shutdown();
     try {
-        String query = "is:important in:inbox"; // Example: Fetch important unread emails from inbox
-        long maxResults = 15L; // Fetch up to 15 emails
+        if (!fetchExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+            fetchExecutor.shutdownNow();
+        }
+    } catch (InterruptedException e) {
+        fetchExecutor.shutdownNow();
+        Thread.currentThread().interrupt();
+    }
+}
 
-        logger.debug("Gmail API Query for userId {}: '{}', Max Results: {}", userId, query, maxResults);
+public List<GmailMessageSummary> fetchImportantEmails(Long userId, OAuth2AccessToken accessToken)
+        throws IOException {
+    return fetchImportantEmails(userId, accessToken, null, DEFAULT_PAGE_SIZE).emails();
+}
 
-        ListMessagesResponse listResponse = service.users().messages().list(USER_IDENTIFIER)
-                .setQ(query)
-                .setMaxResults(maxResults)
-                .execute();
+public EmailPage fetchImportantEmails(Long userId, OAuth2AccessToken accessToken, String pageToken, int pageSize)
+        throws IOException {
+    MessagePage page = listImportantMessages(userId, accessToken, pageToken, pageSize);
+    List<GmailMessageSummary> fetchedEmails = new ArrayList<>(page.messageIds().size());
+    streamMessageDetails(userId, accessToken, page, fetchedEmails::add);
+    logger.info("Successfully fetched {} emails from Gmail for userId: {}", fetchedEmails.size(), userId);
+    return new EmailPage(fetchedEmails, page.nextPageToken(), page.stale());
+}
 
-        List<Message> messages = listResponse.getMessages();
+/**
+ * Resolves which messages make up the requested page. The default first page is kept in
+ * sync incrementally through the Gmail history; any other page is listed directly.
+ */
+public MessagePage listImportantMessages(Long userId, OAuth2AccessToken accessToken, String pageToken, int pageSize)
+        throws IOException {
 
-        if (messages == null || messages.isEmpty()) {
+    logger.info("Fetching important emails for userId: {} using real Gmail API.", userId);
+
+    String tokenValue = accessToken != null ? accessToken.getTokenValue() : null;
+    if (tokenValue == null || tokenValue.trim().isEmpty()) {
+        logger.error("Access token is null or empty for userId: {}. Cannot fetch emails.", userId);
+        return new MessagePage(Collections.emptyList(), null);
+    }
+    logger.debug("Using Access Token for userId: {} (Token starts with: {})", userId,
+            tokenValue.length() > 10 ? tokenValue.substring(0, 10) + "..." : tokenValue);
+
+    Gmail service = gmailClientProvider.clientFor(accessToken);
+    int boundedPageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    boolean firstPage = (pageToken == null || pageToken.isEmpty()) && boundedPageSize == DEFAULT_PAGE_SIZE;
+
+    try {
+        MessagePage page = firstPage
+                ? syncFirstPage(service, userId)
+                : listPage(service, userId, pageToken, boundedPageSize);
+        if (page.messageIds().isEmpty()) {
             logger.info("No messages found matching the query for userId: {}", userId);
-            return Collections.emptyList();
         }
-        logger.info("Found {} messages for userId: {}. Fetching details...", messages.size(), userId);
+        return page;
+    } catch (GmailUnavailableException e) {
+        MessagePage lastSyncedPage = firstPage ? lastSyncedFirstPage(userId) : null;
+        if (lastSyncedPage != null) {
+            logger.warn("Gmail unavailable for userId {} ({}). Serving the last synced page.", userId, e.getMessage());
+            return lastSyncedPage;
+        }
+        logger.error("Gmail unavailable for userId {} and no synced page to fall back on: {}", userId, e.getMessage());
+        throw e;
+    } catch (IOException e) {
+        logger.error("IOException while fetching emails for userId {}: {}", userId, e.getMessage(), e);
+        throw e;
+    } catch (Exception e) {
+        logger.error("Unexpected error while fetching emails for userId {}: {}", userId, e.getMessage(), e);
+        throw new IOException("Failed to retrieve emails from Gmail due to an unexpected error: " + e.getMessage(), e);
+    }
+}
 
-        for (Message message : messages) {
-            Message fullMessage = service.users().messages().get(USER_IDENTIFIER, message.getId())
-                    .setFormat("metadata")
-                    .setFields("id,snippet,internalDate,payload/headers")
-                    .execute();
+/**
+ * Hands the parsed details of every message on the page to the sink, in page order, as soon
+ * as each one is available. Cached messages are emitted without a Gmail round trip; for a
+ * stale page served while Gmail is unavailable, only cached messages are emitted.
+ */
+public void streamMessageDetails(Long userId, OAuth2AccessToken accessToken, MessagePage page,
+                                 Consumer<GmailMessageSummary> sink) throws IOException {
+    if (page.messageIds().isEmpty()) {
+        return;
+    }
+    Gmail service = gmailClientProvider.clientFor(accessToken);
+
+    try {
+        // Only messages missing from the metadata cache need a messages().get round trip
+        Map<String, GmailMessageSummary> cachedById = new HashMap<>();
+        Map<String, CompletableFuture<GmailMessageSummary>> pendingById = new HashMap<>();
+        for (String messageId : page.messageIds()) {
+            GmailMessageSummary cachedEmail = messageCache.get(userId, messageId);
+            if (cachedEmail != null) {
+                cachedById.put(messageId, cachedEmail);
+            } else if (!page.stale()) {
+                // Fan the detail lookups out over the fetch pool; results are joined in page order
+                pendingById.put(messageId, CompletableFuture.supplyAsync(
+                        () -> fetchMessageMetadata(service, userId, messageId), fetchExecutor));
+            }
+        }
+        logger.info("Found {} messages for userId: {} ({} not cached). Fetching details...",
+                page.messageIds().size(), userId, pendingById.size());
 
-            Map<String, Object> emailMap = parseGmailMessage(fullMessage);
-            if (emailMap != null) {
-                fetchedEmails.add(emailMap);
+        for (String messageId : page.messageIds()) {
+            GmailMessageSummary email = cachedById.get(messageId);
+            if (email == null) {
+                CompletableFuture<GmailMessageSummary> pending = pendingById.get(messageId);
+                if (pending == null) {
+                    continue;
+                }
+                email = await(pending);
+                messageCache.put(userId, messageId, email);
             }
+            sink.accept(email);
         }
     } catch (IOException e) {
         logger.error("IOException while fetching emails for userId {}: {}", userId, e.getMessage(), e);
@@ -86,51 +206,231 @@ public List<Map<String, Object>> fetchImportantEmails(Long userId, String access
         logger.error("Unexpected error while fetching emails for userId {}: {}", userId, e.getMessage(), e);
         throw new IOException("Failed to retrieve emails from Gmail due to an unexpected error: " + e.getMessage(), e);
     }
+}
 
-    logger.info("Successfully fetched {} emails from Gmail for userId: {}", fetchedEmails.size(), userId);
-    return fetchedEmails;
+private MessagePage syncFirstPage(Gmail service, Long userId) throws IOException {
+    GmailSyncState syncState = syncStateRepository.findById(userId).orElseGet(() -> new GmailSyncState(userId));
+
+    if (syncState.getHistoryId() != null) {
+        InboxChanges changes = readHistorySince(service, userId, syncState.getHistoryId());
+        if (changes != null && !changes.deleted.isEmpty()) {
+            // Any metadata the user kept for these messages is now orphaned
+            retentionService.recordDeletedMessages(userId, changes.deleted);
+        }
+        if (changes != null) {
+            List<String> previousIds = syncState.getMessageIdList();
+            List<String> messageIds = changes.applyTo(previousIds, DEFAULT_PAGE_SIZE);
+            // The saved page token starts page 2 after the old page 1, so it is only valid while page 1
+            // still holds the same messages; otherwise messages pushed off page 1 would never be shown
+            if (messageIds != null && new HashSet<>(messageIds).equals(new HashSet<>(previousIds))) {
+                syncState.recordSync(changes.historyId, messageIds, syncState.getNextPageToken());
+                syncStateRepository.save(syncState);
+                return new MessagePage(messageIds, syncState.getNextPageToken());
+            }
+            logger.debug("Incremental sync for userId {} changed the first page; relisting for a matching page token.", userId);
+        }
+    }
+
+    // Read the mailbox historyId before listing so that changes made in between are replayed next time
+    BigInteger historyId = quotaGuard.execute(userId, GmailQuotaGuard.GET_PROFILE_UNITS,
+            () -> service.users().getProfile(USER_IDENTIFIER).setFields("historyId").execute()).getHistoryId();
+    MessagePage page = listPage(service, userId, null, DEFAULT_PAGE_SIZE);
+    syncState.recordSync(historyId, page.messageIds(), page.nextPageToken());
+    syncStateRepository.save(syncState);
+    return page;
+}
+
+private MessagePage listPage(Gmail service, Long userId, String pageToken, int pageSize) throws IOException {
+    logger.debug("Gmail API Query for userId {}: '{}', Max Results: {}, Page Token: {}", userId, IMPORTANT_QUERY, pageSize, pageToken);
+
+    ListMessagesResponse listResponse = quotaGuard.execute(userId, GmailQuotaGuard.MESSAGES_LIST_UNITS,
+            () -> service.users().messages().list(USER_IDENTIFIER)
+                    .setQ(IMPORTANT_QUERY)
+                    .setMaxResults((long) pageSize)
+                    .setPageToken(pageToken)
+                    .execute());
+
+    List<String> messageIds = new ArrayList<>();
+    if (listResponse.getMessages() != null) {
+        for (Message message : listResponse.getMessages()) {
+            messageIds.add(message.getId());
+        }
+    }
+    return new MessagePage(messageIds, listResponse.getNextPageToken());
 }
 
-private Map<String, Object> parseGmailMessage(Message gmailMessage) {
-    if (gmailMessage == null) {
-        return null;
+/**
+ * Reads the mailbox history since the given historyId. Returns null when Gmail no longer
+ * retains history that far back, in which case the caller has to do a full listing.
+ */
+private InboxChanges readHistorySince(Gmail service, Long userId, BigInteger startHistoryId) throws IOException {
+    InboxChanges changes = new InboxChanges();
+    String pageToken = null;
+    try {
+        do {
+            String currentPageToken = pageToken;
+            ListHistoryResponse historyResponse = quotaGuard.execute(userId, GmailQuotaGuard.HISTORY_LIST_UNITS,
+                    () -> service.users().history().list(USER_IDENTIFIER)
+                            .setStartHistoryId(startHistoryId)
+                            .setHistoryTypes(HISTORY_TYPES)
+                            .setPageToken(currentPageToken)
+                            .execute());
+            if (historyResponse.getHistory() != null) {
+                for (History history : historyResponse.getHistory()) {
+                    changes.record(history);
+                }
+            }
+            changes.historyId = historyResponse.getHistoryId();
+            pageToken = historyResponse.getNextPageToken();
+        } while (pageToken != null);
+    } catch (GoogleJsonResponseException e) {
+        if (e.getStatusCode() == 404) {
+            logger.info("Gmail history for userId {} starting at {} has expired. Falling back to a full sync.", userId, startHistoryId);
+            return null;
+        }
+        throw e;
     }
+    logger.debug("History since {} for userId {}: {} added, {} removed.", startHistoryId, userId, changes.added.size(), changes.removed.size());
+    return changes;
+}
 
-    Map<String, Object> emailMap = new HashMap<>();
-    emailMap.put("id", gmailMessage.getId());
-    emailMap.put("snippet", gmailMessage.getSnippet() != null ? gmailMessage.getSnippet() : "");
+private GmailMessageSummary fetchMessageMetadata(Gmail service, Long userId, String messageId) {
+    try {
+        return quotaGuard.execute(userId, GmailQuotaGuard.MESSAGES_GET_UNITS, () -> {
+            // Decoded straight from the response stream rather than through the generated Message model
+            HttpResponse response = service.users().messages().get(USER_IDENTIFIER, messageId)
+                    .setFormat("metadata")
+                    .setMetadataHeaders(METADATA_HEADERS)
+                    .setFields("id,snippet,internalDate,payload/headers")
+                    .executeUnparsed();
+            try {
+                return GmailMessageDecoder.decode(response.getContent(), response.getContentCharset());
+            } finally {
+                response.ignore();
+            }
+        });
+    } catch (IOException e) {
+        throw new UncheckedIOException(e);
+    }
+}
+
+private MessagePage lastSyncedFirstPage(Long userId) {
+    return syncStateRepository.findById(userId)
+            .filter(syncState -> syncState.getMessageIds() != null)
+            .map(syncState -> new MessagePage(syncState.getMessageIdList(), syncState.getNextPageToken(), true))
+            .orElse(null);
+}
 
-    if (gmailMessage.getInternalDate() != null) {
-        try {
-            Instant instant = Instant.ofEpochMilli(gmailMessage.getInternalDate());
-            emailMap.put("date", instant.toString()); // ISO 8601 format (e.g., "2025-05-24T12:30:00Z")
-        } catch (Exception e) {
-            logger.warn("Could not parse internalDate: {} for messageId: {}", gmailMessage.getInternalDate(), gmailMessage.getId(), e);
-            emailMap.put("date", "");
+private <T> T await(CompletableFuture<T> pending) throws IOException {
+    try {
+        return pending.join();
+    } catch (CompletionException e) {
+        if (e.getCause() instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) e.getCause()).getCause();
         }
-    } else {
-        emailMap.put("date", "");
+        throw e;
     }
+}
 
-    String subject = "(No Subject)";
-    String sender = "(Unknown Sender)";
-
-    if (gmailMessage.getPayload() != null && gmailMessage.getPayload().getHeaders() != null) {
-        for (MessagePartHeader header : gmailMessage.getPayload().getHeaders()) {
-            String headerName = header.getName();
-            String headerValue = header.getValue();
-            if (headerValue != null) {
-                if ("Subject".equalsIgnoreCase(headerName)) {
-                    subject = headerValue;
-                } else if ("From".equalsIgnoreCase(headerName)) {
-                    sender = headerValue;
+/**
+ * Net effect of a run of Gmail history records on the important-inbox view.
+ */
+static final class InboxChanges {
+    // In the order Gmail reported them, oldest first
+    private final Set<String> added = new LinkedHashSet<>();
+    private final Set<String> removed = new LinkedHashSet<>();
+    // Messages deleted from the mailbox outright, not just moved out of the important inbox
+    private final Set<String> deleted = new LinkedHashSet<>();
+    private BigInteger historyId;
+
+    void record(History history) {
+        if (history.getMessagesAdded() != null) {
+            for (HistoryMessageAdded messageAdded : history.getMessagesAdded()) {
+                trackIfImportantInbox(messageAdded.getMessage());
+            }
+        }
+        if (history.getLabelsAdded() != null) {
+            for (HistoryLabelAdded labelAdded : history.getLabelsAdded()) {
+                // Only INBOX or IMPORTANT can bring a message into the view; STARRED, UNREAD or user labels
+                // on a message that is already there are not arrivals
+                List<String> labelIds = labelAdded.getLabelIds();
+                if (labelIds != null && (labelIds.contains(INBOX_LABEL) || labelIds.contains(IMPORTANT_LABEL))) {
+                    trackIfImportantInbox(labelAdded.getMessage());
                 }
             }
         }
+        if (history.getLabelsRemoved() != null) {
+            for (HistoryLabelRemoved labelRemoved : history.getLabelsRemoved()) {
+                List<String> labelIds = labelRemoved.getLabelIds();
+                if (labelRemoved.getMessage() != null && labelIds != null
+                        && (labelIds.contains(INBOX_LABEL) || labelIds.contains(IMPORTANT_LABEL))) {
+                    remove(labelRemoved.getMessage().getId());
+                }
+            }
+        }
+        if (history.getMessagesDeleted() != null) {
+            for (HistoryMessageDeleted messageDeleted : history.getMessagesDeleted()) {
+                if (messageDeleted.getMessage() != null) {
+                    remove(messageDeleted.getMessage().getId());
+                    deleted.add(messageDeleted.getMessage().getId());
+                }
+            }
+        }
+    }
+
+    private void trackIfImportantInbox(Message message) {
+        if (message == null || message.getLabelIds() == null) {
+            return;
+        }
+        if (message.getLabelIds().contains(INBOX_LABEL) && message.getLabelIds().contains(IMPORTANT_LABEL)) {
+            added.remove(message.getId());
+            added.add(message.getId());
+            removed.remove(message.getId());
+        }
+    }
+
+    private void remove(String messageId) {
+        added.remove(messageId);
+        removed.add(messageId);
     }
-    emailMap.put("subject", subject);
-    emailMap.put("sender", sender);
 
-    return emailMap;
+    /**
+     * Applies the changes to the previously synced IDs. Messages already on the page keep their place,
+     * since history records carry no dates to reorder by; new arrivals go on top in event order, and the
+     * caller relists whenever the set of IDs changed, which restores Gmail's date order. Returns null when
+     * removals left a previously full page short, since the older messages that should backfill it are unknown.
+     */
+    List<String> applyTo(List<String> previousIds, int maxResults) {
+        Set<String> previous = new HashSet<>(previousIds);
+        List<String> merged = new ArrayList<>();
+        for (String messageId : added) {
+            if (!previous.contains(messageId)) {
+                merged.add(messageId);
+            }
+        }
+        Collections.reverse(merged);
+        for (String messageId : previousIds) {
+            if (!removed.contains(messageId)) {
+                merged.add(messageId);
+            }
+        }
+        if (merged.size() < maxResults && previousIds.size() >= maxResults) {
+            return null;
+        }
+        return merged.size() > maxResults ? new ArrayList<>(merged.subList(0, maxResults)) : merged;
+    }
+}
+
+/**
+ * Message IDs of one page. A stale page was served from the last sync because Gmail was unavailable.
+ */
+public record MessagePage(List<String> messageIds, String nextPageToken, boolean stale) {
+
+    public MessagePage(List<String> messageIds, String nextPageToken) {
+        this(messageIds, nextPageToken, false);
+    }
+}
+
+public record EmailPage(List<GmailMessageSummary> emails, String nextPageToken, boolean stale) {
 }
 }
@@ -0,0 +1,18 @@
+package com.example.minder.service;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a Gmail call is refused locally, either because the circuit breaker is open
+ * or because the quota budget for the user could not be reserved in time.
+ */
+public class GmailUnavailableException extends IOException {
+
+    public GmailUnavailableException(String message) {
+        super(message);
+    }
+
+    public GmailUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
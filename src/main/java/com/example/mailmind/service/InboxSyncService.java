@@ -0,0 +1,303 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.GmailMessageSummary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the first page of each active user's important inbox synced in the background, so that
+ * GET /api/emails can answer from the local view instead of waiting on Gmail. Users are synced on
+ * a bounded worker pool, longest-waiting first, with at most one sync in flight per user. The
+ * interval per user shrinks while their inbox is changing and backs off while it is quiet.
+ */
+@Service
+public class InboxSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboxSyncService.class);
+
+    private final GmailService gmailService;
+    private final OAuth2AuthorizedClientService authorizedClientService;
+
+    private final Map<Long, SyncTarget> activeUsers = new ConcurrentHashMap<>();
+    private final Map<Long, SyncedInbox> syncedInboxes = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<GmailService.EmailPage>> pendingPrefetches = new ConcurrentHashMap<>();
+
+    @Value("${minder.sync.workers:4}")
+    private int workerCount;
+
+    @Value("${minder.sync.min-interval-seconds:60}")
+    private long minIntervalSeconds;
+
+    @Value("${minder.sync.max-interval-seconds:900}")
+    private long maxIntervalSeconds;
+
+    // A synced page older than this is still served, but a read also starts a background refresh of it
+    // (a cheap history delta in GmailService), so active readers never wait on the background interval.
+    @Value("${minder.sync.serve-fresh-seconds:30}")
+    private long serveFreshSeconds;
+
+    // How long the first /api/emails call waits for a login prefetch before fetching on its own
+    @Value("${minder.sync.prefetch-wait-ms:5000}")
+    private long prefetchWaitMs;
+
+    // Users who have not opened the dashboard for this long drop out of background sync
+    @Value("${minder.sync.inactive-after-minutes:30}")
+    private long inactiveAfterMinutes;
+
+    private ThreadPoolExecutor syncExecutor;
+
+    public InboxSyncService(GmailService gmailService, OAuth2AuthorizedClientService authorizedClientService) {
+        this.gmailService = gmailService;
+        this.authorizedClientService = authorizedClientService;
+    }
+
+    @PostConstruct
+    void initSyncExecutor() {
+        int poolSize = Math.max(1, workerCount);
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "inbox-sync-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        syncExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Inbox sync pool started with {} workers.", poolSize);
+    }
+
+    @PreDestroy
+    void shutdownSyncExecutor() {
+        syncExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts fetching the user's first page while the OAuth redirect is still in flight, so the
+     * dashboard's first /api/emails call finds it already synced. Skipped when the pool is saturated.
+     */
+    public void prefetchOnLogin(Long userId, String clientRegistrationId, String principalName,
+                                OAuth2AccessToken accessToken) {
+        registerActiveUser(userId, clientRegistrationId, principalName);
+        CompletableFuture<GmailService.EmailPage> prefetch = new CompletableFuture<>();
+        if (pendingPrefetches.putIfAbsent(userId, prefetch) != null) {
+            return;
+        }
+        try {
+            syncExecutor.execute(() -> {
+                try {
+                    GmailService.EmailPage page = gmailService.fetchImportantEmails(userId, accessToken, null, GmailService.DEFAULT_PAGE_SIZE);
+                    storeSyncedPage(userId, page);
+                    prefetch.complete(page);
+                    logger.info("Prefetched {} important emails for userId {} on login.", page.emails().size(), userId);
+                } catch (Exception e) {
+                    logger.warn("Login prefetch failed for userId {}: {}", userId, e.getMessage());
+                    prefetch.completeExceptionally(e);
+                } finally {
+                    pendingPrefetches.remove(userId, prefetch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingPrefetches.remove(userId, prefetch);
+            logger.debug("Sync pool is busy; skipping login prefetch for userId {}.", userId);
+        }
+    }
+
+    /**
+     * Returns the user's synced first page whenever there is one. If it is older than
+     * {@code minder.sync.serve-fresh-seconds}, a background refresh is started so the next read sees the
+     * result (stale-while-revalidate). Without a synced page it waits briefly for a login prefetch still in
+     * flight, and otherwise fetches from Gmail on the calling thread. Either way the user is (re-)registered
+     * for background sync.
+     */
+    public GmailService.EmailPage getFirstPage(Long userId, String clientRegistrationId, String principalName,
+                                               OAuth2AccessToken accessToken) throws IOException {
+        SyncTarget target = touchActiveUser(userId, clientRegistrationId, principalName);
+        SyncedInbox synced = syncedInboxes.get(userId);
+        if (synced != null) {
+            if (synced.syncedAt().isBefore(Instant.now().minusSeconds(serveFreshSeconds))) {
+                refreshInBackground(target, accessToken);
+            }
+            logger.debug("Serving synced inbox for userId {} (synced at {}).", userId, synced.syncedAt());
+            return synced.page();
+        }
+        CompletableFuture<GmailService.EmailPage> prefetch = pendingPrefetches.get(userId);
+        if (prefetch != null) {
+            try {
+                return prefetch.get(prefetchWaitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the login prefetch", e);
+            } catch (ExecutionException | TimeoutException e) {
+                logger.debug("Login prefetch for userId {} not usable ({}); fetching directly.", userId, e.toString());
+            }
+        }
+        GmailService.EmailPage page = gmailService.fetchImportantEmails(userId, accessToken, null, GmailService.DEFAULT_PAGE_SIZE);
+        storeSyncedPage(userId, page);
+        return page;
+    }
+
+    public void registerActiveUser(Long userId, String clientRegistrationId, String principalName) {
+        touchActiveUser(userId, clientRegistrationId, principalName);
+    }
+
+    private SyncTarget touchActiveUser(Long userId, String clientRegistrationId, String principalName) {
+        SyncTarget target = activeUsers.computeIfAbsent(userId,
+                id -> new SyncTarget(id, clientRegistrationId, principalName, Duration.ofSeconds(minIntervalSeconds)));
+        target.lastAccessAt = Instant.now();
+        return target;
+    }
+
+    /**
+     * Syncs the user now on the worker pool with the reader's token, unless a sync is already running.
+     * Skipped when the pool is saturated; the reader already has a page and the scheduled sync follows.
+     */
+    private void refreshInBackground(SyncTarget target, OAuth2AccessToken accessToken) {
+        if (!target.inFlight.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            syncExecutor.execute(() -> syncUser(target, accessToken));
+        } catch (RejectedExecutionException e) {
+            target.inFlight.set(false);
+            logger.debug("Sync pool is busy; serving the synced inbox for userId {} without refreshing it.", target.userId);
+        }
+    }
+
+    /**
+     * Stores a freshly fetched first page as the user's synced view.
+     */
+    public void storeSyncedPage(Long userId, GmailService.EmailPage page) {
+        if (!page.stale()) {
+            syncedInboxes.put(userId, new SyncedInbox(page, Instant.now()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${minder.sync.dispatch-ms:1000}")
+    public void dispatchDueSyncs() {
+        Instant now = Instant.now();
+        Instant inactiveBefore = now.minus(Duration.ofMinutes(inactiveAfterMinutes));
+        List<SyncTarget> dueTargets = new ArrayList<>();
+        for (SyncTarget target : activeUsers.values()) {
+            if (target.lastAccessAt.isBefore(inactiveBefore)) {
+                activeUsers.remove(target.userId);
+                syncedInboxes.remove(target.userId);
+                logger.debug("userId {} is inactive; stopped background inbox sync.", target.userId);
+            } else if (!target.inFlight.get() && !target.nextRunAt.isAfter(now)) {
+                dueTargets.add(target);
+            }
+        }
+        // Longest-waiting users first, so a burst of new users cannot starve the others
+        dueTargets.sort(Comparator.comparing(target -> target.nextRunAt));
+        for (SyncTarget target : dueTargets) {
+            if (syncExecutor.getQueue().remainingCapacity() == 0) {
+                break;
+            }
+            if (!target.inFlight.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                syncExecutor.execute(() -> syncUser(target, null));
+            } catch (RejectedExecutionException e) {
+                target.inFlight.set(false);
+                break;
+            }
+        }
+    }
+
+    private void syncUser(SyncTarget target, OAuth2AccessToken readerToken) {
+        try {
+            OAuth2AccessToken accessToken = readerToken;
+            if (accessToken == null) {
+                OAuth2AuthorizedClient client = authorizedClientService.loadAuthorizedClient(
+                        target.clientRegistrationId, target.principalName);
+                accessToken = client != null ? client.getAccessToken() : null;
+            }
+            if (accessToken == null || (accessToken.getExpiresAt() != null && accessToken.getExpiresAt().isBefore(Instant.now()))) {
+                // Without a usable token there is nothing to do until the user comes back and signs in again
+                logger.debug("No valid access token for userId {}; pausing background inbox sync.", target.userId);
+                target.reschedule(Duration.ofSeconds(maxIntervalSeconds));
+                return;
+            }
+
+            SyncedInbox previous = syncedInboxes.get(target.userId);
+            GmailService.EmailPage page = gmailService.fetchImportantEmails(target.userId, accessToken, null, GmailService.DEFAULT_PAGE_SIZE);
+            storeSyncedPage(target.userId, page);
+
+            boolean changed = previous == null || !messageIds(previous.page()).equals(messageIds(page));
+            Duration nextInterval = changed
+                    ? Duration.ofSeconds(minIntervalSeconds)
+                    : target.interval.multipliedBy(2).compareTo(Duration.ofSeconds(maxIntervalSeconds)) > 0
+                        ? Duration.ofSeconds(maxIntervalSeconds)
+                        : target.interval.multipliedBy(2);
+            target.reschedule(nextInterval);
+            logger.debug("Background sync for userId {} done ({} messages, changed: {}). Next in {}s.",
+                    target.userId, page.emails().size(), changed, nextInterval.getSeconds());
+        } catch (Exception e) {
+            logger.warn("Background inbox sync failed for userId {}: {}", target.userId, e.getMessage());
+            target.reschedule(Duration.ofSeconds(maxIntervalSeconds));
+        } finally {
+            target.inFlight.set(false);
+        }
+    }
+
+    private static List<String> messageIds(GmailService.EmailPage page) {
+        List<String> ids = new ArrayList<>(page.emails().size());
+        for (GmailMessageSummary email : page.emails()) {
+            ids.add(email.id());
+        }
+        return ids;
+    }
+
+    private record SyncedInbox(GmailService.EmailPage page, Instant syncedAt) {
+    }
+
+    private static final class SyncTarget {
+        private final Long userId;
+        private final String clientRegistrationId;
+        private final String principalName;
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+        private volatile Duration interval;
+        private volatile Instant nextRunAt;
+        private volatile Instant lastAccessAt;
+
+        SyncTarget(Long userId, String clientRegistrationId, String principalName, Duration interval) {
+            this.userId = userId;
+            this.clientRegistrationId = clientRegistrationId;
+            this.principalName = principalName;
+            this.interval = interval;
+            this.nextRunAt = Instant.now().plus(interval);
+            this.lastAccessAt = Instant.now();
+        }
+
+        void reschedule(Duration nextInterval) {
+            this.interval = nextInterval;
+            this.nextRunAt = Instant.now().plus(nextInterval);
+        }
+    }
+}
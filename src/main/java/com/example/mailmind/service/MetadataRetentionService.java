@@ -0,0 +1,257 @@
+package com.example.minder.service;
+
+import com.example.minder.repository.EmailMetadataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps email_metadata from growing forever. Removes, in small locked chunks with a pause in between:
+ * rows whose reminder fired long ago, rows that carry nothing (no priority, reminder or notes), and rows
+ * for messages that Gmail history reported as deleted. Counters and the near-cache are kept in step.
+ * <p>
+ * The two table scans run on one instance at a time under a scheduler lease. Deleted-in-Gmail reports are
+ * queued on the instance whose sync saw them, so every instance purges its own queue on each run.
+ */
+@Service
+public class MetadataRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataRetentionService.class);
+
+    private static final String RETENTION_LOCK = "metadata-retention";
+
+    private final EmailMetadataRepository metadataRepository;
+    private final MetadataStatsService statsService;
+    private final EmailMetadataCache metadataCache;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService lockService;
+
+    // Messages reported deleted by Gmail history sync, waiting for the next run
+    private final ConcurrentLinkedQueue<DeletedMessage> deletedInGmail = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger deletedInGmailSize = new AtomicInteger();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong firedRemindersDeleted = new AtomicLong();
+    private final AtomicLong emptyRowsDeleted = new AtomicLong();
+    private final AtomicLong deletedMessagesDeleted = new AtomicLong();
+    private volatile long lastRunMillis;
+
+    @Value("${minder.retention.fired-reminder-days:90}")
+    private long firedReminderDays;
+
+    @Value("${minder.retention.chunk-size:500}")
+    private int chunkSize;
+
+    // Pause between chunks so foreground writes get the locks in between
+    @Value("${minder.retention.chunk-pause-ms:200}")
+    private long chunkPauseMs;
+
+    @Value("${minder.retention.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    @Value("${minder.retention.deleted-queue-max:100000}")
+    private int deletedQueueMax;
+
+    // Renewed after every chunk, so it only needs to outlast one chunk and its pause
+    @Value("${minder.retention.lease-minutes:10}")
+    private long leaseMinutes;
+
+    public MetadataRetentionService(EmailMetadataRepository metadataRepository, MetadataStatsService statsService,
+                                    EmailMetadataCache metadataCache, TransactionTemplate transactionTemplate,
+                                    SchedulerLockService lockService) {
+        this.metadataRepository = metadataRepository;
+        this.statsService = statsService;
+        this.metadataCache = metadataCache;
+        this.transactionTemplate = transactionTemplate;
+        this.lockService = lockService;
+    }
+
+    /**
+     * Queues messages that no longer exist in Gmail for removal on the next run. Drops them once the
+     * queue is full; rows missed that way stay until a later deletion report or the other rules catch them.
+     */
+    public void recordDeletedMessages(Long userId, Collection<String> gmailMessageIds) {
+        for (String gmailMessageId : gmailMessageIds) {
+            if (deletedInGmailSize.incrementAndGet() > deletedQueueMax) {
+                deletedInGmailSize.decrementAndGet();
+                logger.warn("Retention queue for deleted Gmail messages is full; dropping further deletions for userId {}.", userId);
+                return;
+            }
+            deletedInGmail.add(new DeletedMessage(userId, gmailMessageId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${minder.retention.interval-ms:3600000}", initialDelayString = "${minder.retention.initial-delay-ms:600000}")
+    public void runRetention() {
+        long startedAt = System.currentTimeMillis();
+        runs.incrementAndGet();
+        int chunksLeft = Math.max(1, maxChunksPerRun);
+
+        int deletedMessages = purgeDeletedInGmail();
+
+        int firedReminders = 0;
+        int emptyRows = 0;
+        Duration lease = Duration.ofMinutes(leaseMinutes);
+        if (lockService.tryAcquire(RETENTION_LOCK, lease)) {
+            try {
+                boolean holding = true;
+                LocalDateTime firedBefore = LocalDateTime.now().minusDays(firedReminderDays);
+                LocalDateTime afterTime = null;
+                Long afterReminderId = null;
+                while (chunksLeft-- > 0) {
+                    List<EmailMetadataRepository.ReminderScheduleEntry> chunk = afterTime == null
+                            ? metadataRepository.findFiredRemindersForRetention(firedBefore, Pageable.ofSize(chunkSize))
+                            : metadataRepository.findFiredRemindersForRetentionAfter(firedBefore, afterTime, afterReminderId,
+                                    Pageable.ofSize(chunkSize));
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    EmailMetadataRepository.ReminderScheduleEntry last = chunk.get(chunk.size() - 1);
+                    afterTime = last.getReminderDateTime();
+                    afterReminderId = last.getId();
+                    List<Long> ids = chunk.stream().map(EmailMetadataRepository.ReminderScheduleEntry::getId).toList();
+                    firedReminders += deleteChunk(() -> metadataRepository.lockFiredRemindersForRetention(ids, firedBefore));
+                    if (chunk.size() < chunkSize) {
+                        break;
+                    }
+                    if (!pauseAndRenew(lease)) {
+                        holding = false;
+                        break;
+                    }
+                }
+
+                long afterId = 0;
+                while (holding && chunksLeft-- > 0) {
+                    List<Long> ids = metadataRepository.findEmptyRowIdsForRetention(afterId, chunkSize);
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    afterId = ids.get(ids.size() - 1);
+                    emptyRows += deleteChunk(() -> metadataRepository.lockEmptyRowsForRetention(ids));
+                    if (ids.size() < chunkSize || !pauseAndRenew(lease)) {
+                        break;
+                    }
+                }
+            } finally {
+                lockService.release(RETENTION_LOCK);
+            }
+        } else {
+            logger.debug("Metadata retention scans are running on another instance; only purged local deletion reports.");
+        }
+
+        firedRemindersDeleted.addAndGet(firedReminders);
+        emptyRowsDeleted.addAndGet(emptyRows);
+        deletedMessagesDeleted.addAndGet(deletedMessages);
+        lastRunMillis = System.currentTimeMillis() - startedAt;
+        logger.info("Metadata retention run: {} fired reminders, {} empty rows and {} deleted-in-Gmail rows removed in {} ms.",
+                firedReminders, emptyRows, deletedMessages, lastRunMillis);
+    }
+
+    public RetentionStats getStats() {
+        return new RetentionStats(runs.get(), firedRemindersDeleted.get(), emptyRowsDeleted.get(),
+                deletedMessagesDeleted.get(), deletedInGmailSize.get(), lastRunMillis);
+    }
+
+    private int purgeDeletedInGmail() {
+        int total = 0;
+        while (!deletedInGmail.isEmpty()) {
+            Map<Long, List<String>> byUser = new HashMap<>();
+            DeletedMessage next;
+            int taken = 0;
+            while (taken < chunkSize && (next = deletedInGmail.poll()) != null) {
+                deletedInGmailSize.decrementAndGet();
+                byUser.computeIfAbsent(next.userId(), id -> new ArrayList<>()).add(next.gmailMessageId());
+                taken++;
+            }
+            for (Map.Entry<Long, List<String>> entry : byUser.entrySet()) {
+                total += deleteChunk(() -> metadataRepository.lockByMessageIdsForRetention(entry.getKey(), entry.getValue()));
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Locks the candidates that still qualify, deletes them and adjusts the priority counters, all in one
+     * short transaction.
+     */
+    private int deleteChunk(CandidateQuery query) {
+        List<EmailMetadataRepository.RetentionCandidate> deleted = transactionTemplate.execute(status -> {
+            List<EmailMetadataRepository.RetentionCandidate> candidates = query.lockCandidates();
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+            List<Long> ids = new ArrayList<>(candidates.size());
+            Map<Long, Map<String, Long>> deltasByUser = new HashMap<>();
+            for (EmailMetadataRepository.RetentionCandidate candidate : candidates) {
+                ids.add(candidate.getId());
+                deltasByUser.computeIfAbsent(candidate.getUserId(), id -> new HashMap<>())
+                        .merge(MetadataStatsService.bucket(candidate.getPriority()), -1L, Long::sum);
+            }
+            metadataRepository.deleteAllByIdInBatch(ids);
+            deltasByUser.forEach(statsService::recordChanges);
+            return candidates;
+        });
+        if (deleted == null) {
+            return 0;
+        }
+        for (EmailMetadataRepository.RetentionCandidate candidate : deleted) {
+            metadataCache.deleted(candidate.getUserId(), candidate.getGmailMessageId());
+        }
+        return deleted.size();
+    }
+
+    /**
+     * Pauses between chunks and extends the lease. False when interrupted or when the lease was lost to
+     * another instance, in which case the scans stop.
+     */
+    private boolean pauseAndRenew(Duration lease) {
+        if (!pause()) {
+            return false;
+        }
+        if (!lockService.tryAcquire(RETENTION_LOCK, lease)) {
+            logger.warn("Lost the metadata retention lease; stopping this run's scans.");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface CandidateQuery {
+        List<EmailMetadataRepository.RetentionCandidate> lockCandidates();
+    }
+
+    private record DeletedMessage(Long userId, String gmailMessageId) {
+    }
+
+    public record RetentionStats(long runs, long firedRemindersDeleted, long emptyRowsDeleted,
+                                 long deletedInGmailRowsDeleted, int deletedInGmailQueued, long lastRunMillis) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.MetadataStats;
+import com.example.minder.model.PriorityCounter;
+import com.example.minder.repository.EmailMetadataRepository;
+import com.example.minder.repository.PriorityCounterRepository;
+import com.example.minder.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-user priority counters maintained alongside every metadata write, so the dashboard summary is a
+ * handful of primary-key reads instead of one COUNT(*) scan per bucket.
+ */
+@Service
+public class MetadataStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataStatsService.class);
+
+    public static final String NO_PRIORITY = "none";
+
+    private static final String RECONCILE_LOCK = "stats-reconcile";
+
+    private final PriorityCounterRepository counterRepository;
+    private final EmailMetadataRepository metadataRepository;
+    private final UserRepository userRepository;
+    private final SchedulerLockService lockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${minder.stats.reconcile-chunk-size:100}")
+    private int reconcileChunkSize;
+
+    // Renewed after every chunk, so it only needs to outlast one chunk
+    @Value("${minder.stats.reconcile-lease-minutes:10}")
+    private long reconcileLeaseMinutes;
+
+    public MetadataStatsService(PriorityCounterRepository counterRepository, EmailMetadataRepository metadataRepository,
+                                UserRepository userRepository, SchedulerLockService lockService,
+                                TransactionTemplate transactionTemplate) {
+        this.counterRepository = counterRepository;
+        this.metadataRepository = metadataRepository;
+        this.userRepository = userRepository;
+        this.lockService = lockService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Buckets null and blank priorities together with "none", the value the UI uses for "no priority".
+     */
+    public static String bucket(String priority) {
+        return priority == null || priority.isBlank() ? NO_PRIORITY : priority;
+    }
+
+    /**
+     * Records a row moving between buckets. Pass null for {@code fromBucket} when the row is new and null
+     * for {@code toBucket} when it was deleted. Must run in the transaction that writes the row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Long userId, String fromBucket, String toBucket) {
+        if (fromBucket != null && fromBucket.equals(toBucket)) {
+            return;
+        }
+        if (fromBucket != null) {
+            counterRepository.adjust(userId, fromBucket, -1);
+        }
+        if (toBucket != null) {
+            counterRepository.adjust(userId, toBucket, 1);
+        }
+    }
+
+    /**
+     * Applies already-aggregated deltas, e.g. from a bulk update. Must run in the transaction that writes the rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Long userId, Map<String, Long> deltaByBucket) {
+        deltaByBucket.forEach((bucket, delta) -> {
+            if (delta != 0) {
+                counterRepository.adjust(userId, bucket, delta);
+            }
+        });
+    }
+
+    public MetadataStats getStats(Long userId) {
+        Map<String, Long> priorities = new TreeMap<>();
+        long total = 0;
+        for (PriorityCounter counter : counterRepository.findByKeyUserId(userId)) {
+            if (counter.getMessageCount() > 0) {
+                priorities.put(counter.getKey().getPriority(), counter.getMessageCount());
+                total += counter.getMessageCount();
+            }
+        }
+        // Time-based counts cannot be maintained by writes alone; both are index-only range counts instead
+        LocalDateTime now = LocalDateTime.now();
+        long upcoming = metadataRepository.countUpcomingReminders(userId, now);
+        long overdue = metadataRepository.countOverdueReminders(userId, now);
+        return new MetadataStats(total, priorities, upcoming, overdue);
+    }
+
+    /**
+     * Rebuilds all counters from email_metadata, correcting any drift from concurrent writes or failed jobs.
+     */
+    @Scheduled(cron = "${minder.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileCounters() {
+        rebuildCounters();
+    }
+
+    /**
+     * Seeds the counters on the first start after they were introduced, instead of waiting for the nightly run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedCountersIfEmpty() {
+        if (counterRepository.count() == 0 && metadataRepository.findFirstByOrderByIdAsc().isPresent()) {
+            rebuildCounters();
+        }
+    }
+
+    /**
+     * Rebuilds one user per transaction, walking users in keyset chunks, so each run only holds one user's
+     * locks at a time; that user's writes wait for the rebuild rather than deadlocking with it. Runs on one instance: the others find the lease taken and skip.
+     */
+    private void rebuildCounters() {
+        Duration lease = Duration.ofMinutes(reconcileLeaseMinutes);
+        if (!lockService.tryAcquire(RECONCILE_LOCK, lease)) {
+            logger.info("Priority counter reconciliation is running on another instance; skipping.");
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        int users = 0;
+        int rebuilt = 0;
+        try {
+            Long afterId = 0L;
+            List<Long> userIds;
+            do {
+                userIds = userRepository.findIdsAfter(afterId, Pageable.ofSize(reconcileChunkSize));
+                for (Long userId : userIds) {
+                    Integer buckets = transactionTemplate.execute(status -> {
+                        // Metadata rows first, counters second: the same lock order as every writer
+                        List<EmailMetadataRepository.PriorityBucketCount> counts =
+                                metadataRepository.lockPriorityCountsForUser(userId);
+                        counterRepository.deleteCountersForUser(userId);
+                        for (EmailMetadataRepository.PriorityBucketCount count : counts) {
+                            counterRepository.adjust(userId, count.getBucket(), count.getMessageCount());
+                        }
+                        return counts.size();
+                    });
+                    rebuilt += buckets == null ? 0 : buckets;
+                    users++;
+                }
+                if (!userIds.isEmpty()) {
+                    afterId = userIds.get(userIds.size() - 1);
+                    if (!lockService.tryAcquire(RECONCILE_LOCK, lease)) {
+                        logger.warn("Lost the priority counter reconciliation lease after {} users; stopping.", users);
+                        return;
+                    }
+                }
+            } while (userIds.size() == reconcileChunkSize);
+        } finally {
+            lockService.release(RECONCILE_LOCK);
+        }
+        logger.info("Reconciled priority counters: {} buckets for {} users rebuilt in {} ms.",
+                rebuilt, users, System.currentTimeMillis() - startedAt);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.UserSnapshot;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Google principal that also carries the local user resolved by {@link CustomOAuth2UserService} at login,
+ * so controllers can get the internal user ID without looking the user up again.
+ */
+public class MinderOAuth2User extends DefaultOAuth2User implements MinderPrincipal {
+
+    private final UserSnapshot user;
+
+    public MinderOAuth2User(Collection<? extends GrantedAuthority> authorities, Map<String, Object> attributes,
+                            String nameAttributeKey, UserSnapshot user) {
+        super(authorities, attributes, nameAttributeKey);
+        this.user = user;
+    }
+
+    @Override
+    public UserSnapshot getUser() { return user; }
+}
@@ -0,0 +1,27 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.UserSnapshot;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+
+import java.util.Collection;
+
+/**
+ * OpenID Connect counterpart of {@link MinderOAuth2User}, produced by {@link CustomOidcUserService} when the
+ * login requests the openid scope.
+ */
+public class MinderOidcUser extends DefaultOidcUser implements MinderPrincipal {
+
+    private final UserSnapshot user;
+
+    public MinderOidcUser(Collection<? extends GrantedAuthority> authorities, OidcIdToken idToken,
+                          OidcUserInfo userInfo, String nameAttributeKey, UserSnapshot user) {
+        super(authorities, idToken, userInfo, nameAttributeKey);
+        this.user = user;
+    }
+
+    @Override
+    public UserSnapshot getUser() { return user; }
+}
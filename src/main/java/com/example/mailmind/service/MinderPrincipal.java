@@ -0,0 +1,14 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.UserSnapshot;
+
+/**
+ * A login principal that carries the local user resolved at sign-in, whether the login went through
+ * plain OAuth2 ({@link MinderOAuth2User}) or OpenID Connect ({@link MinderOidcUser}).
+ */
+public interface MinderPrincipal {
+
+    UserSnapshot getUser();
+
+    default Long getInternalUserId() { return getUser().id(); }
+}
@@ -0,0 +1,34 @@
+package com.example.minder.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+/**
+ * Identifies this instance as a lease owner. Set {@code minder.node-id} to a stable name per instance;
+ * otherwise "pid@host" plus a random suffix is used, which is unique but changes on every restart.
+ */
+@Component
+public class NodeIdentity {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeIdentity.class);
+
+    private final String id;
+
+    public NodeIdentity(@Value("${minder.node-id:}") String configuredId) {
+        String candidate = configuredId == null || configuredId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : configuredId.trim();
+        // Fits the lease_owner columns
+        this.id = candidate.length() > 64 ? candidate.substring(0, 64) : candidate;
+        logger.info("Lease owner ID for this instance: {}", id);
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.minder.service;
+
+import com.example.minder.model.NotificationOutbox;
+import com.example.minder.repository.NotificationOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for outgoing notification emails. Callers add a row inside their own transaction;
+ * a bounded worker pool then delivers the rows in batches through {@link EmailSendingService} outside any
+ * transaction and records the outcomes in short transactions of their own. Failed sends are retried with exponential
+ * backoff until {@code minder.outbox.max-attempts}. Delivery is at-least-once: a crash between sending
+ * and marking a row sent delivers it again after restart.
+ * <p>
+ * Rows are claimed with a lease ({@code minder.outbox.lease-seconds}), so several instances can drain the
+ * same outbox; rows held by an instance that died are picked up once the lease expires.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final EmailSendingService emailSendingService;
+    private final TransactionTemplate transactionTemplate;
+    private final NodeIdentity nodeIdentity;
+
+    // Rows handed to the pool and not yet finished, so overlapping drains do not submit them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Transaction resource key marking that the current transaction already has a drain registered
+    private final Object drainRegisteredKey = new Object();
+    // Set while a post-commit drain is queued, so a burst of commits costs one extra drain, not one each
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private ThreadPoolExecutor sendExecutor;
+    private ExecutorService drainExecutor;
+
+    @Value("${minder.outbox.workers:4}")
+    private int workers;
+
+    @Value("${minder.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${minder.outbox.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    // Rows sent one after another over a single pooled SMTP connection by one worker
+    @Value("${minder.outbox.send-batch-size:20}")
+    private int batchSize;
+
+    // Longer than one batch can take, including the wait for a pooled SMTP connection
+    @Value("${minder.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${minder.outbox.sent-retention-days:7}")
+    private long sentRetentionDays;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository, EmailSendingService emailSendingService,
+                                     TransactionTemplate transactionTemplate, NodeIdentity nodeIdentity) {
+        this.outboxRepository = outboxRepository;
+        this.emailSendingService = emailSendingService;
+        // REQUIRES_NEW: drainOutbox also runs from an afterCommit callback, where the finished transaction's
+        // resources are still bound and a plain REQUIRED template would join it
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeIdentity = nodeIdentity;
+    }
+
+    @PostConstruct
+    void initSendExecutor() {
+        int poolSize = Math.max(1, workers);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "outbox-send-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Queue sized to the pool: a drain only fetches as many batches as there is room for
+        sendExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 2), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        drainExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-drain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Notification outbox started with {} send workers.", poolSize);
+    }
+
+    @PreDestroy
+    void shutdownSendExecutor() {
+        drainExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * Adds a notification to the outbox as part of the caller's transaction. The workers are woken once
+     * that transaction commits, so nothing is sent for work that rolls back. The wake-up only queues a
+     * drain on the outbox-drain thread; the committing thread never waits on the drain's database work.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long metadataId, String recipient, String subject, String body) {
+        NotificationOutbox entry = outboxRepository.save(new NotificationOutbox(metadataId, recipient, subject, body));
+        logger.debug("Queued notification {} for metadata ID {}.", entry.getId(), metadataId);
+        // One wake-up per transaction, however many rows it queues; the resource marks it as registered
+        if (TransactionSynchronizationManager.hasResource(drainRegisteredKey)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(drainRegisteredKey, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestDrain();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(drainRegisteredKey);
+            }
+        });
+    }
+
+    private void requestDrain() {
+        if (!drainRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drainExecutor.execute(() -> {
+                // Cleared before draining, so rows committed while this drain runs request another one
+                drainRequested.set(false);
+                try {
+                    drainOutbox();
+                } catch (RuntimeException e) {
+                    logger.warn("Post-commit outbox drain failed; the scheduled poll retries: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            drainRequested.set(false);
+            logger.debug("Outbox drain thread is shut down; the scheduled poll picks the rows up.");
+        }
+    }
+
+    /**
+     * Leases ready rows to this instance and hands them to the worker pool in batches of
+     * {@code minder.outbox.send-batch-size}, up to its free queue capacity. Also runs on a short fixed delay
+     * to pick up retries, rows left over from a restart and expired leases. Synchronized so the scheduled run
+     * and a post-commit wake-up do not both claim a full queue's worth.
+     */
+    @Scheduled(fixedDelayString = "${minder.outbox.poll-ms:1000}")
+    public synchronized void drainOutbox() {
+        int capacity = sendExecutor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        int perBatch = Math.max(1, batchSize);
+        List<Long> readyIds = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxRepository.lockReadyIds(now, capacity * perBatch);
+            if (!ids.isEmpty()) {
+                outboxRepository.leaseEntries(ids, nodeIdentity.getId(), now.plusSeconds(leaseSeconds));
+            }
+            return ids;
+        });
+        List<Long> batch = new ArrayList<>(perBatch);
+        for (Long id : readyIds) {
+            if (inFlight.add(id)) {
+                batch.add(id);
+            }
+            if (batch.size() == perBatch) {
+                if (!submit(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(perBatch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+    }
+
+    private boolean submit(List<Long> batch) {
+        try {
+            sendExecutor.execute(() -> {
+                try {
+                    deliverBatch(batch);
+                } finally {
+                    inFlight.removeAll(batch);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.removeAll(batch);
+            logger.debug("Outbox send pool is full; remaining rows wait for their lease to expire.");
+            return false;
+        }
+    }
+
+    /**
+     * Sends one batch over a single pooled SMTP connection and records each row's outcome. Rows that were
+     * finished or re-leased elsewhere since the drain claimed them are skipped.
+     */
+    private void deliverBatch(List<Long> ids) {
+        List<NotificationOutbox> entries = transactionTemplate.execute(status -> outboxRepository.findAllById(ids).stream()
+                .filter(found -> found.getStatus() == NotificationOutbox.Status.PENDING)
+                .filter(found -> nodeIdentity.getId().equals(found.getLeaseOwner()))
+                .toList());
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        List<SimpleMailMessage> messages = new ArrayList<>(entries.size());
+        for (NotificationOutbox entry : entries) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(entry.getRecipient());
+            message.setSubject(entry.getSubject());
+            message.setText(entry.getBody());
+            messages.add(message);
+        }
+        Map<Integer, Exception> failures;
+        try {
+            failures = emailSendingService.sendBatch(messages);
+        } catch (Exception e) {
+            failedAttempts.addAndGet(entries.size());
+            for (NotificationOutbox entry : entries) {
+                recordFailure(entry.getId(), e);
+            }
+            return;
+        }
+        List<Long> sentIds = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Exception failure = failures.get(i);
+            if (failure == null) {
+                sentIds.add(entries.get(i).getId());
+            } else {
+                failedAttempts.incrementAndGet();
+                recordFailure(entries.get(i).getId(), failure);
+            }
+        }
+        if (sentIds.isEmpty()) {
+            return;
+        }
+        sent.addAndGet(sentIds.size());
+        LocalDateTime sentAt = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.findAllById(sentIds).forEach(found -> {
+            found.setStatus(NotificationOutbox.Status.SENT);
+            found.setAttempts(found.getAttempts() + 1);
+            found.setSentAt(sentAt);
+            found.setLastError(null);
+            found.setLeaseOwner(null);
+            found.setLeaseExpiresAt(null);
+        }));
+        logger.info("Sent {} of {} notifications over one connection.", sentIds.size(), entries.size());
+    }
+
+    private void recordFailure(Long id, Exception error) {
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(id).ifPresent(found -> {
+            int attempts = found.getAttempts() + 1;
+            found.setAttempts(attempts);
+            found.setLeaseOwner(null);
+            found.setLeaseExpiresAt(null);
+            String message = String.valueOf(error.getMessage());
+            found.setLastError(message.length() > 512 ? message.substring(0, 512) : message);
+            if (attempts >= maxAttempts) {
+                found.setStatus(NotificationOutbox.Status.FAILED);
+                logger.error("Notification {} failed after {} attempts; giving up: {}", id, attempts, message);
+            } else {
+                long backoffSeconds = retryBackoffSeconds << Math.min(attempts - 1, 10);
+                found.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds));
+                logger.warn("Notification {} failed (attempt {}), retrying in {}s: {}", id, attempts, backoffSeconds, message);
+            }
+        }));
+    }
+
+    @Scheduled(cron = "${minder.outbox.purge-cron:0 30 3 * * ?}")
+    public void purgeSentNotifications() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(sentRetentionDays)));
+        logger.info("Purged {} sent notifications older than {} days.", deleted, sentRetentionDays);
+    }
+
+    public OutboxStats getStats() {
+        return new OutboxStats(sendExecutor.getMaximumPoolSize(), sendExecutor.getActiveCount(), inFlight.size(),
+                outboxRepository.countByStatus(NotificationOutbox.Status.PENDING),
+                outboxRepository.countByStatus(NotificationOutbox.Status.FAILED), sent.get(), failedAttempts.get());
+    }
+
+    public record OutboxStats(int workers, int activeWorkers, int inFlight, long pending, long failed,
+                              long sent, long failedAttempts) {
+    }
+}
@@ -1,16 +1,18 @@
 package com.example.minder.service;
 
-import com.example.minder.model.EmailMetadata;
+import com.example.minder.dto.EmailMetadataSnapshot;
 import com.example.minder.repository.EmailMetadataRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class NotificationSchedulerService {
@@ -21,41 +23,93 @@ public class NotificationSchedulerService {
     private EmailMetadataRepository metadataRepository;
 
     @Autowired
-    private EmailSendingService emailSendingService;
+    private NotificationOutboxService outboxService;
 
-    @Scheduled(cron = "0 * * * * ?") // Runs at the start of every minute
+    @Autowired
+    private EmailMetadataService metadataService;
+
+    @Autowired
+    private NodeIdentity nodeIdentity;
+
+    @Value("${minder.reminders.lease-seconds:300}")
+    private long leaseSeconds;
+
+    /**
+     * Claims the next chunk of at most {@code limit} overdue reminders after the keyset position
+     * ({@code afterTime}, {@code afterId}), or from the start when {@code afterTime} is null, and commits the
+     * lease straight away so other instances skip them. Send the chunk with {@link #queueClaimedReminders};
+     * rows left unsent by a crash become claimable again once their lease expires.
+     */
     @Transactional
-    public void checkForDueRemindersAndSendNotifications() {
-        logger.debug("Checking for due reminders at {}", LocalDateTime.now());
+    public List<EmailMetadataRepository.DueReminder> claimOverdueReminders(LocalDateTime afterTime, Long afterId, int limit) {
         LocalDateTime now = LocalDateTime.now();
-        // Query needs to consider a small window for reminders slightly past due
-        List<EmailMetadata> dueReminders = metadataRepository.findDueAndUnnotifiedReminders(now);
+        List<EmailMetadataRepository.DueReminder> chunk = afterTime == null
+                ? metadataRepository.lockClaimableDueReminders(now, limit)
+                : metadataRepository.lockClaimableDueRemindersAfter(now, afterTime, afterId, limit);
+        if (!chunk.isEmpty()) {
+            List<Long> ids = chunk.stream().map(EmailMetadataRepository.DueReminder::getId).toList();
+            metadataRepository.leaseReminders(ids, nodeIdentity.getId(), now.plusSeconds(leaseSeconds));
+            logger.debug("Claimed {} overdue reminders.", ids.size());
+        }
+        return chunk;
+    }
 
-        if (dueReminders.isEmpty()) {
-            return;
+    /**
+     * Queues a chunk claimed by {@link #claimOverdueReminders} in one transaction: one lock query, the outbox
+     * inserts and one update, whatever the chunk size. Returns how many reminders were queued.
+     */
+    @Transactional
+    public int queueClaimedReminders(List<EmailMetadataRepository.DueReminder> chunk) {
+        List<Long> ids = chunk.stream().map(EmailMetadataRepository.DueReminder::getId).toList();
+        Set<Long> stillLeased = new HashSet<>(metadataRepository.lockLeasedReminders(ids, nodeIdentity.getId()));
+        if (stillLeased.isEmpty()) {
+            return 0;
         }
-        logger.info("Found {} due reminders to process.", dueReminders.size());
-        for (EmailMetadata reminder : dueReminders) {
-            try {
-                logger.info("Processing reminder for emailId: {}, subject: '{}', for user: {}",
-                        reminder.getGmailMessageId(), reminder.getSubject(), reminder.getUser().getEmail());
-                String recipientEmail = reminder.getUser().getEmail();
-                String emailSubject = "MailMinder Reminder: " + reminder.getSubject();
-                String emailBody = "Hi " + (reminder.getUser().getDisplayName() != null ? reminder.getUser().getDisplayName() : "there") + ",\n\n" +
-                                 "This is a reminder from MailMinder regarding your email:\n" +
-                                 "Subject: " + reminder.getSubject() + "\n" +
-                                 "From: " + reminder.getSender() + "\n" +
-                                 (reminder.getNotes() != null && !reminder.getNotes().isEmpty() ? "Your Notes: " + reminder.getNotes() + "\n" : "") +
-                                 "\nIt was scheduled for: " + reminder.getReminderDateTime().toLocalDate() + " at " + reminder.getReminderDateTime().toLocalTime() +
-                                 "\n\nThanks,\nThe MailMinder Team";
-                emailSendingService.sendSimpleMessage(recipientEmail, emailSubject, emailBody);
-                reminder.setNotified(true);
-                metadataRepository.save(reminder);
-                logger.info("Notification sent for reminder ID: {}, emailId: {}", reminder.getId(), reminder.getGmailMessageId());
-            } catch (Exception e) {
-                logger.error("Failed to send notification for reminder ID: {}, emailId: {}: {}",
-                             reminder.getId(), reminder.getGmailMessageId(), e.getMessage(), e);
+        for (EmailMetadataRepository.DueReminder reminder : chunk) {
+            if (stillLeased.contains(reminder.getId())) {
+                enqueueNotification(reminder);
             }
         }
+        metadataRepository.markRemindersNotified(stillLeased);
+        logger.info("Queued notifications for {} claimed reminders.", stillLeased.size());
+        return stillLeased.size();
+    }
+
+    /**
+     * Queues the reminder for one metadata row when {@link ReminderDispatcher} reaches its due time. The row is
+     * locked first, so a reminder that was moved, sent or deleted since it was scheduled, or that another
+     * instance is sending, is skipped. The email goes through the outbox, so this transaction only covers
+     * two row writes and never waits on SMTP.
+     */
+    @Transactional
+    public void queueReminder(Long metadataId) {
+        List<EmailMetadataRepository.DueReminder> locked =
+                metadataRepository.lockDueReminderForSend(metadataId, LocalDateTime.now(), nodeIdentity.getId());
+        if (locked.isEmpty()) {
+            logger.debug("Reminder for metadata ID {} is gone, not due or held by another instance; skipping.", metadataId);
+            return;
+        }
+        enqueueNotification(locked.get(0));
+        metadataRepository.markRemindersNotified(List.of(metadataId));
+    }
+
+    // Marked notified together with the outbox insert; delivery retries are the outbox's job from here
+    private void enqueueNotification(EmailMetadataRepository.DueReminder reminder) {
+        logger.info("Processing reminder for emailId: {}, subject: '{}', for user: {}",
+                reminder.getGmailMessageId(), reminder.getSubject(), reminder.getRecipientEmail());
+        String recipientEmail = reminder.getRecipientEmail();
+        String emailSubject = "MailMinder Reminder: " + reminder.getSubject();
+        String emailBody = "Hi " + (reminder.getRecipientName() != null ? reminder.getRecipientName() : "there") + ",\n\n" +
+                         "This is a reminder from MailMinder regarding your email:\n" +
+                         "Subject: " + reminder.getSubject() + "\n" +
+                         "From: " + reminder.getSender() + "\n" +
+                         (reminder.getNotes() != null && !reminder.getNotes().isEmpty() ? "Your Notes: " + reminder.getNotes() + "\n" : "") +
+                         "\nIt was scheduled for: " + reminder.getReminderDateTime().toLocalDate() + " at " + reminder.getReminderDateTime().toLocalTime() +
+                         "\n\nThanks,\nThe MailMinder Team";
+        outboxService.enqueue(reminder.getId(), recipientEmail, emailSubject, emailBody);
+        metadataService.writeThroughAfterCommit(reminder.getUserId(), new EmailMetadataSnapshot(reminder.getId(),
+                reminder.getGmailMessageId(), reminder.getPriority(), reminder.getReminderDateTime(), reminder.getNotes(),
+                reminder.getSubject(), reminder.getSender(), true));
+        logger.info("Notification queued for reminder ID: {}, emailId: {}", reminder.getId(), reminder.getGmailMessageId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.example.minder.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link EmailMetadataService} after a metadata write commits. A null reminderDateTime or
+ * notified=true means nothing is scheduled for the row any more, which also covers deletion.
+ */
+public record ReminderChangedEvent(Long metadataId, LocalDateTime reminderDateTime, boolean notified) {
+}
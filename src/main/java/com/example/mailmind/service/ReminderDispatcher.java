@@ -0,0 +1,202 @@
+package com.example.minder.service;
+
+import com.example.minder.repository.EmailMetadataRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires reminders at their due time from an in-memory {@link DelayQueue}. The queue holds every unsent
+ * reminder due within the next two horizons and is reloaded from the database once per horizon; writes in
+ * between reach it through {@link ReminderChangedEvent}s, so the database is not polled in between.
+ * <p>
+ * Several instances may run this side by side. Overdue reminders are claimed in leased chunks, so instances
+ * split a backlog between them. For reminders fired from the queue, the row lock taken by
+ * {@link NotificationSchedulerService#queueReminder} makes the first instance win and the others skip.
+ */
+@Service
+public class ReminderDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+    private final EmailMetadataRepository metadataRepository;
+    private final NotificationSchedulerService notificationService;
+
+    private final DelayQueue<ScheduledReminder> queue = new DelayQueue<>();
+    // Current schedule entry per metadata row; queue entries not in here are stale and skipped when taken
+    private final Map<Long, ScheduledReminder> scheduled = new ConcurrentHashMap<>();
+
+    @Value("${minder.reminders.horizon-minutes:15}")
+    private long horizonMinutes;
+
+    @Value("${minder.reminders.max-scheduled:100000}")
+    private int maxScheduled;
+
+    @Value("${minder.reminders.claim-batch-size:200}")
+    private int claimBatchSize;
+
+    private volatile Thread dispatchThread;
+
+    public ReminderDispatcher(EmailMetadataRepository metadataRepository, NotificationSchedulerService notificationService) {
+        this.metadataRepository = metadataRepository;
+        this.notificationService = notificationService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::dispatchLoop, "reminder-dispatcher");
+        thread.setDaemon(true);
+        dispatchThread = thread;
+        thread.start();
+        logger.info("Reminder dispatcher started with a {} minute horizon.", horizonMinutes);
+    }
+
+    @PreDestroy
+    void stop() {
+        Thread thread = dispatchThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Sends the overdue backlog, then loads all unsent reminders due before two horizons from now. Loading
+     * twice the reload interval means a late reload never leaves a gap. Overdue rows leased by another
+     * instance are still loaded; they are skipped at fire time and come back here if that lease expires.
+     */
+    @Scheduled(fixedDelayString = "#{${minder.reminders.horizon-minutes:15} * 60000}", initialDelayString = "#{${minder.reminders.horizon-minutes:15} * 60000}")
+    public void reloadHorizon() {
+        drainOverdue();
+        LocalDateTime dueBefore = LocalDateTime.now().plusMinutes(horizonMinutes * 2);
+        List<EmailMetadataRepository.ReminderScheduleEntry> entries =
+                metadataRepository.findUnsentRemindersDueBefore(dueBefore, Pageable.ofSize(maxScheduled));
+        for (EmailMetadataRepository.ReminderScheduleEntry entry : entries) {
+            schedule(entry.getId(), entry.getReminderDateTime());
+        }
+        if (entries.size() >= maxScheduled) {
+            logger.warn("Reminder horizon truncated at {} entries; later reminders wait for the next reload.", maxScheduled);
+        }
+        logger.debug("Reminder horizon reloaded: {} reminders due before {}, {} scheduled in total.", entries.size(), dueBefore, scheduled.size());
+    }
+
+    @EventListener
+    public void onReminderChanged(ReminderChangedEvent event) {
+        if (event.reminderDateTime() == null || event.notified()) {
+            ScheduledReminder removed = scheduled.remove(event.metadataId());
+            if (removed != null) {
+                logger.debug("Reminder for metadata ID {} unscheduled.", event.metadataId());
+            }
+            return;
+        }
+        if (event.reminderDateTime().isBefore(LocalDateTime.now().plusMinutes(horizonMinutes * 2))) {
+            schedule(event.metadataId(), event.reminderDateTime());
+        } else {
+            // Moved beyond the horizon; the reload that covers its new time will pick it up
+            scheduled.remove(event.metadataId());
+        }
+    }
+
+    private void drainOverdue() {
+        int total = 0;
+        LocalDateTime afterTime = null;
+        Long afterId = null;
+        List<EmailMetadataRepository.DueReminder> chunk;
+        do {
+            chunk = notificationService.claimOverdueReminders(afterTime, afterId, claimBatchSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            try {
+                total += notificationService.queueClaimedReminders(chunk);
+            } catch (Exception e) {
+                // Stays leased to this instance; it is retried once the lease expires
+                logger.error("Failed to queue a chunk of {} overdue reminders: {}", chunk.size(), e.getMessage(), e);
+            }
+            EmailMetadataRepository.DueReminder last = chunk.get(chunk.size() - 1);
+            afterTime = last.getReminderDateTime();
+            afterId = last.getId();
+        } while (chunk.size() == claimBatchSize);
+        if (total > 0) {
+            logger.info("Queued {} overdue reminders.", total);
+        }
+    }
+
+    public int getScheduledCount() {
+        return scheduled.size();
+    }
+
+    private void schedule(Long metadataId, LocalDateTime reminderDateTime) {
+        long dueAtMillis = reminderDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        ScheduledReminder current = scheduled.get(metadataId);
+        if (current != null && current.dueAtMillis == dueAtMillis) {
+            return;
+        }
+        ScheduledReminder reminder = new ScheduledReminder(metadataId, dueAtMillis);
+        scheduled.put(metadataId, reminder);
+        queue.add(reminder);
+    }
+
+    private void dispatchLoop() {
+        try {
+            reloadHorizon();
+        } catch (Exception e) {
+            logger.error("Initial reminder horizon load failed; retrying on the next reload: {}", e.getMessage(), e);
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            ScheduledReminder reminder;
+            try {
+                reminder = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Skip entries that were rescheduled or cancelled after being queued
+            if (!scheduled.remove(reminder.metadataId, reminder)) {
+                continue;
+            }
+            try {
+                long lateMillis = System.currentTimeMillis() - reminder.dueAtMillis;
+                logger.debug("Dispatching reminder for metadata ID {} ({} ms after its due time).", reminder.metadataId, lateMillis);
+                notificationService.queueReminder(reminder.metadataId);
+            } catch (Exception e) {
+                logger.error("Failed to dispatch reminder for metadata ID {}: {}", reminder.metadataId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class ScheduledReminder implements Delayed {
+        private final Long metadataId;
+        private final long dueAtMillis;
+
+        ScheduledReminder(Long metadataId, long dueAtMillis) {
+            this.metadataId = metadataId;
+            this.dueAtMillis = dueAtMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.ofMillis(dueAtMillis - System.currentTimeMillis()));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((ScheduledReminder) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.minder.service;
+
+import com.example.minder.repository.SchedulerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Leases on scheduler_lock rows, so a periodic job runs on one instance at a time. A holder that dies
+ * loses the lease once it expires; long jobs call {@link #tryAcquire} again to extend it.
+ */
+@Service
+public class SchedulerLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    private final SchedulerLockRepository lockRepository;
+    private final NodeIdentity nodeIdentity;
+
+    public SchedulerLockService(SchedulerLockRepository lockRepository, NodeIdentity nodeIdentity) {
+        this.lockRepository = lockRepository;
+        this.nodeIdentity = nodeIdentity;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration leaseFor) {
+        lockRepository.ensureExists(name);
+        LocalDateTime now = LocalDateTime.now();
+        boolean acquired = lockRepository.tryAcquire(name, nodeIdentity.getId(), now, now.plus(leaseFor)) == 1;
+        if (!acquired) {
+            logger.debug("Scheduler lock '{}' is held by another instance.", name);
+        }
+        return acquired;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name) {
+        lockRepository.release(name, nodeIdentity.getId(), LocalDateTime.now());
+    }
+}
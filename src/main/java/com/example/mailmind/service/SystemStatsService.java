@@ -0,0 +1,39 @@
+package com.example.minder.service;
+
+import com.example.minder.cache.BoundedTtlCache;
+import org.springframework.stereotype.Service;
+
+/**
+ * Operational figures for this instance, as opposed to the per-user dashboard numbers of
+ * {@link MetadataStatsService}. Mostly in-memory state of the local node; the outbox backlog counts
+ * are shared by all instances.
+ */
+@Service
+public class SystemStatsService {
+
+    private final UserService userService;
+    private final GmailMessageCache gmailMessageCache;
+    private final MetadataRetentionService retentionService;
+    private final NotificationOutboxService outboxService;
+    private final ReminderDispatcher reminderDispatcher;
+
+    public SystemStatsService(UserService userService, GmailMessageCache gmailMessageCache,
+                              MetadataRetentionService retentionService, NotificationOutboxService outboxService,
+                              ReminderDispatcher reminderDispatcher) {
+        this.userService = userService;
+        this.gmailMessageCache = gmailMessageCache;
+        this.retentionService = retentionService;
+        this.outboxService = outboxService;
+        this.reminderDispatcher = reminderDispatcher;
+    }
+
+    public SystemStats getStats() {
+        return new SystemStats(userService.getUserCacheStats(), gmailMessageCache.getStats(),
+                retentionService.getStats(), outboxService.getStats(), reminderDispatcher.getScheduledCount());
+    }
+
+    public record SystemStats(BoundedTtlCache.CacheStats userCache, BoundedTtlCache.CacheStats gmailMessageCache,
+                              MetadataRetentionService.RetentionStats retention,
+                              NotificationOutboxService.OutboxStats outbox, int scheduledReminders) {
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.minder.service;
+import com.example.minder.cache.BoundedTtlCache;
+import com.example.minder.dto.UserSnapshot;
 import com.example.minder.model.User;
+import com.example.minder.repository.PriorityCounterRepository;
 import com.example.minder.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,10 +21,17 @@ public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
+    private final UserSnapshotCache userCache;
+    private final PriorityCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
 
     
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserSnapshotCache userCache,
+                       PriorityCounterRepository counterRepository, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public Optional<User> findById(Long id) {
@@ -25,6 +39,50 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    public Optional<UserSnapshot> findSnapshotByEmail(String email) {
+        UserSnapshot cached = userCache.getByEmail(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return userRepository.findByEmail(email).map(this::cacheSnapshot);
+    }
+
+    /**
+     * Resolves the local user for a Google sign-in. When the cached user already matches what Google
+     * reports there is nothing to update, so the database is not touched at all. Otherwise the find-and-save
+     * runs in its own transaction (a self-call would bypass createOrUpdateUser's proxy); when a concurrent
+     * first login wins the insert, it is retried once and finds that user.
+     */
+    public UserSnapshot resolveLoginUser(String googleId, String email, String displayName) {
+        UserSnapshot cached = userCache.getByGoogleId(googleId);
+        if (cached != null && cached.email().equals(email)
+                && (displayName == null || displayName.equals(cached.displayName()))) {
+            return cached;
+        }
+        try {
+            return transactionTemplate.execute(status -> saveLoginUser(googleId, email, displayName));
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Concurrent login created user with Google ID: {} first; retrying.", googleId);
+            return transactionTemplate.execute(status -> saveLoginUser(googleId, email, displayName));
+        }
+    }
+
+    private UserSnapshot saveLoginUser(String googleId, String email, String displayName) {
+        UserSnapshot snapshot = UserSnapshot.from(createOrUpdateUser(googleId, email, displayName));
+        // Registered after createOrUpdateUser's invalidation, so it runs after it once committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userCache.put(snapshot);
+            }
+        });
+        return snapshot;
+    }
+
+    public BoundedTtlCache.CacheStats getUserCacheStats() {
+        return userCache.getStats();
+    }
+
     public Optional<User> findByGoogleId(String googleId) {
         logger.debug("Finding user by Google ID: {}", googleId);
         return userRepository.findByGoogleId(googleId);
@@ -46,8 +104,11 @@ public class UserService {
         logger.info("Attempting to create or update user with Google ID: {} and Email: {}", googleId, email);
         Optional<User> existingUserOpt = userRepository.findByGoogleId(googleId);
         User user;
+        // The cache keys the user had before this call, in case the email or Google ID changes
+        UserSnapshot before = null;
         if (existingUserOpt.isPresent()) {
             user = existingUserOpt.get();
+            before = UserSnapshot.from(user);
             logger.info("User found by Google ID: {}. Updating details if necessary.", googleId);
             boolean needsUpdate = false;
             if (displayName != null && !displayName.equals(user.getDisplayName())) {
@@ -71,6 +132,7 @@ public class UserService {
             Optional<User> userByEmailOpt = userRepository.findByEmail(email);
             if (userByEmailOpt.isPresent()) {
                 user = userByEmailOpt.get();
+                before = UserSnapshot.from(user);
                 logger.info("User found by email: {}. Linking Google ID: {} if different.", email, googleId);
                 if (user.getGoogleId() == null || !user.getGoogleId().equals(googleId)) {
                     user.setGoogleId(googleId);
@@ -87,6 +149,7 @@ public class UserService {
                 logger.info("New user created with ID: {}", user.getId());
             }
         }
+        invalidateCachedUser(before, UserSnapshot.from(user));
         return user;
     }
 
@@ -98,11 +161,46 @@ public class UserService {
     @Transactional
     public void deleteUser(Long id) {
         logger.info("Attempting to delete user with ID: {}", id);
-        if (!userRepository.existsById(id)) {
+        Optional<User> existing = userRepository.findById(id);
+        if (existing.isEmpty()) {
             logger.warn("User with ID: {} not found for deletion.", id);
             throw new RuntimeException("User not found with ID: " + id + " for deletion.");
         }
-        userRepository.deleteById(id);
+        UserSnapshot deleted = UserSnapshot.from(existing.get());
+        // Counters have no foreign key to users, and reconciliation only walks existing users
+        counterRepository.deleteCountersForUser(id);
+        userRepository.delete(existing.get());
+        invalidateCachedUser(deleted);
         logger.info("User with ID: {} deleted successfully.", id);
     }
+
+    private UserSnapshot cacheSnapshot(User user) {
+        UserSnapshot snapshot = UserSnapshot.from(user);
+        userCache.put(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Invalidates now and again once the surrounding transaction commits, so a reader racing the commit
+     * cannot leave the pre-update row cached.
+     */
+    private void invalidateCachedUser(UserSnapshot... snapshots) {
+        invalidateNow(snapshots);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(snapshots);
+                }
+            });
+        }
+    }
+
+    private void invalidateNow(UserSnapshot... snapshots) {
+        for (UserSnapshot snapshot : snapshots) {
+            if (snapshot != null) {
+                userCache.invalidate(snapshot);
+            }
+        }
+    }
 }
\ No newline at end of file
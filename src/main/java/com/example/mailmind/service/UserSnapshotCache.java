@@ -0,0 +1,72 @@
+package com.example.minder.service;
+
+import com.example.minder.cache.BoundedTtlCache;
+import com.example.minder.dto.UserSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Local users keyed by email and by Google ID, the two lookups made per request and per login. Each
+ * snapshot is stored under both keys. Users rarely change; {@link UserService} invalidates the keys of
+ * a user, as they were before and after the change, whenever it writes that user.
+ */
+@Component
+public class UserSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSnapshotCache.class);
+
+    private final BoundedTtlCache<LookupKey, UserSnapshot> cache;
+
+    public UserSnapshotCache(@Value("${minder.user-cache.max-size:30000}") int maxSize,
+                             @Value("${minder.user-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+    }
+
+    public UserSnapshot getByEmail(String email) {
+        return cache.get(new LookupKey(LookupAttribute.EMAIL, email));
+    }
+
+    public UserSnapshot getByGoogleId(String googleId) {
+        return cache.get(new LookupKey(LookupAttribute.GOOGLE_ID, googleId));
+    }
+
+    public void put(UserSnapshot user) {
+        cache.put(new LookupKey(LookupAttribute.EMAIL, user.email()), user);
+        cache.put(new LookupKey(LookupAttribute.GOOGLE_ID, user.googleId()), user);
+    }
+
+    /**
+     * Drops the entries under the snapshot's email and Google ID. Pass the user as it was before a change
+     * too, so keys for an email or Google ID the user no longer has go as well.
+     */
+    public void invalidate(UserSnapshot user) {
+        if (user.email() != null) {
+            cache.invalidate(new LookupKey(LookupAttribute.EMAIL, user.email()));
+        }
+        if (user.googleId() != null) {
+            cache.invalidate(new LookupKey(LookupAttribute.GOOGLE_ID, user.googleId()));
+        }
+    }
+
+    public BoundedTtlCache.CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Scheduled(fixedDelayString = "${minder.user-cache.sweep-ms:300000}")
+    public void evictExpired() {
+        int evicted = cache.evictExpired();
+        BoundedTtlCache.CacheStats stats = cache.stats();
+        logger.debug("User cache: {} entries, {} hits, {} misses (hit ratio {}), {} expired entries evicted.",
+                stats.size(), stats.hits(), stats.misses(), String.format("%.2f", stats.hitRatio()), evicted);
+    }
+
+    private enum LookupAttribute { EMAIL, GOOGLE_ID }
+
+    private record LookupKey(LookupAttribute attribute, Object value) {
+    }
+}
@@ -25,6 +25,7 @@ document.addEventListener('DOMContentLoaded', function () {
 
     const scheduledRemindersListUL = document.getElementById('scheduled-reminders-list');
     const noRemindersMessage = document.getElementById('no-reminders-message');
+    const loadMoreRemindersButton = document.getElementById('load-more-reminders');
     const userProfileDetailsDiv = document.getElementById('user-profile-details');
 
     const urlParams = new URLSearchParams(window.location.search);
@@ -61,7 +62,7 @@ document.addEventListener('DOMContentLoaded', function () {
     function showDashboardInfo(message) { showMessage(dashboardInfoEl, message, false); }
     function clearAllMessages() { hideMessage(dashboardErrorEl, true); hideMessage(dashboardInfoEl, true); }
 
-    async function apiFetch(url, options = {}) {
+    async function apiFetch(url, options = {}, onResponse) {
         clearAllMessages();
         try {
             const defaultOptions = { credentials: 'include', headers: { 'Accept': 'application/json', 'Content-Type': 'application/json', ...(options.headers || {}), }, };
@@ -86,6 +87,7 @@ document.addEventListener('DOMContentLoaded', function () {
                 }
                 throw new Error(errorDetail);
             }
+            if (onResponse) onResponse(response);
             if (response.status === 204 || !responseText) return null;
             return JSON.parse(responseText);
         } catch (error) {
@@ -365,10 +367,54 @@ document.addEventListener('DOMContentLoaded', function () {
         }, 800);
     }
 
+    // The endpoint returns one keyset page at a time. Only the first page is loaded with the view;
+    // X-Next-Page-Token is kept so "Load more" can fetch the next one when the user asks for it.
+    let nextRemindersToken = null;
+    let remindersLoadId = 0;
+
+    async function fetchUpcomingRemindersPage(after) {
+        let nextToken = null;
+        const url = `${API_BASE_URL}/reminders/upcoming` + (after ? `?after=${encodeURIComponent(after)}` : '');
+        const page = await apiFetch(url, {}, response => { nextToken = response.headers.get('X-Next-Page-Token'); });
+        return { reminders: page, nextToken };
+    }
+
+    function updateLoadMoreReminders() {
+        if (!loadMoreRemindersButton) return;
+        loadMoreRemindersButton.disabled = false;
+        loadMoreRemindersButton.style.display = nextRemindersToken ? 'inline-flex' : 'none';
+    }
+
+    if (loadMoreRemindersButton) {
+        loadMoreRemindersButton.addEventListener('click', async function () {
+            if (!nextRemindersToken) return;
+            const loadId = remindersLoadId;
+            loadMoreRemindersButton.disabled = true;
+            try {
+                const { reminders, nextToken } = await fetchUpcomingRemindersPage(nextRemindersToken);
+                if (loadId !== remindersLoadId) return; // The list was reloaded meanwhile
+                (reminders || []).forEach(reminder => scheduledRemindersListUL.appendChild(createScheduledReminderElement(reminder)));
+                nextRemindersToken = nextToken;
+            } catch (error) { /* apiFetch already showed error; the same page can be retried */ }
+            if (loadId === remindersLoadId) updateLoadMoreReminders();
+        });
+    }
+
+    function createScheduledReminderElement(reminder) {
+        const li = document.createElement('li');
+        li.className = 'reminder-item';
+        const reminderDate = new Date(reminder.reminderDateTime).toLocaleString();
+        li.innerHTML = `<strong>${reminder.subject || '(No Subject)'}</strong><br><small>Due: ${reminderDate}</small>`;
+        return li;
+    }
+
     async function loadScheduledReminders() {
         if (!scheduledRemindersListUL || !noRemindersMessage) return;
         scheduledRemindersListUL.innerHTML = '<li><i class="fas fa-spinner fa-spin"></i> Loading reminders...</li>';
         noRemindersMessage.style.display = 'none';
+        const loadId = ++remindersLoadId;
+        nextRemindersToken = null;
+        updateLoadMoreReminders();
         if (isDemoMode) {
             scheduledRemindersListUL.innerHTML = '';
             noRemindersMessage.textContent = 'Reminders are available in live mode.';
@@ -376,21 +422,19 @@ document.addEventListener('DOMContentLoaded', function () {
             return;
         }
         try {
-            const reminders = await apiFetch(`${API_BASE_URL}/reminders/upcoming`);
+            const { reminders, nextToken } = await fetchUpcomingRemindersPage(null);
+            if (loadId !== remindersLoadId) return;
             scheduledRemindersListUL.innerHTML = '';
             if (reminders && reminders.length > 0) {
                 noRemindersMessage.style.display = 'none';
-                reminders.forEach(reminder => {
-                    const li = document.createElement('li');
-                    li.className = 'reminder-item';
-                    const reminderDate = new Date(reminder.reminderDateTime).toLocaleString();
-                    li.innerHTML = `<strong>${reminder.subject || '(No Subject)'}</strong><br><small>Due: ${reminderDate}</small>`;
-                    scheduledRemindersListUL.appendChild(li);
-                });
+                reminders.forEach(reminder => scheduledRemindersListUL.appendChild(createScheduledReminderElement(reminder)));
+                nextRemindersToken = nextToken;
+                updateLoadMoreReminders();
             } else {
                 noRemindersMessage.style.display = 'block';
             }
         } catch (error) {
+            if (loadId !== remindersLoadId) return;
             scheduledRemindersListUL.innerHTML = `<li class="error-message-li">Error loading reminders: ${error.message}</li>`;
         }
     }
@@ -1,6 +1,7 @@
 document.addEventListener('DOMContentLoaded', function () {
     const remindersListUL = document.getElementById('remindersListUL');
     const noRemindersMessage = document.getElementById('no-reminders-message');
+    const loadMoreRemindersButton = document.getElementById('load-more-reminders');
     const logoutButton = document.getElementById('logout-link-reminders'); // Specific ID for this page
 
     const API_BASE_URL = 'http://localhost:8080/api'; // Your Spring Boot backend
@@ -67,7 +68,7 @@ document.addEventListener('DOMContentLoaded', function () {
     function showRemindersInfo(message) { showMessage(remindersInfoEl, message, false); }
     function clearAllMessages() { hideMessage(remindersErrorEl, true); hideMessage(remindersInfoEl, true); }
 
-    async function apiFetch(url, options = {}) {
+    async function apiFetch(url, options = {}, onResponse) {
         clearAllMessages();
         try {
             const defaultOptions = {
@@ -93,6 +94,7 @@ document.addEventListener('DOMContentLoaded', function () {
                 }
                 throw new Error(errorDetail);
             }
+            if (onResponse) onResponse(response);
             if (response.status === 204 || !responseText) return null;
             return JSON.parse(responseText);
         } catch (error) {
@@ -288,6 +290,39 @@ document.addEventListener('DOMContentLoaded', function () {
         });
     }
 
+    // The endpoint returns one keyset page at a time. Only the first page is loaded with the view;
+    // X-Next-Page-Token is kept so "Load more" can fetch the next one when the user asks for it.
+    let nextRemindersToken = null;
+    let remindersLoadId = 0;
+
+    async function fetchUpcomingRemindersPage(after) {
+        let nextToken = null;
+        const url = `${API_BASE_URL}/reminders/upcoming` + (after ? `?after=${encodeURIComponent(after)}` : '');
+        const page = await apiFetch(url, {}, response => { nextToken = response.headers.get('X-Next-Page-Token'); });
+        return { reminders: page, nextToken };
+    }
+
+    function updateLoadMoreReminders() {
+        if (!loadMoreRemindersButton) return;
+        loadMoreRemindersButton.disabled = false;
+        loadMoreRemindersButton.style.display = nextRemindersToken ? 'inline-flex' : 'none';
+    }
+
+    if (loadMoreRemindersButton) {
+        loadMoreRemindersButton.addEventListener('click', async function () {
+            if (!nextRemindersToken) return;
+            const loadId = remindersLoadId;
+            loadMoreRemindersButton.disabled = true;
+            try {
+                const { reminders, nextToken } = await fetchUpcomingRemindersPage(nextRemindersToken);
+                if (loadId !== remindersLoadId) return; // The list was reloaded meanwhile
+                (reminders || []).forEach(reminder => remindersListUL.appendChild(createReminderItemElement(reminder)));
+                nextRemindersToken = nextToken;
+            } catch (error) { /* apiFetch already showed error; the same page can be retried */ }
+            if (loadId === remindersLoadId) updateLoadMoreReminders();
+        });
+    }
+
     async function loadScheduledReminders() {
         clearAllMessages();
         if (!remindersListUL || !noRemindersMessage) {
@@ -296,15 +331,21 @@ document.addEventListener('DOMContentLoaded', function () {
         }
         remindersListUL.innerHTML = '<li class="loading-message"><i class="fas fa-spinner fa-spin"></i> Loading your reminders...</li>';
         noRemindersMessage.style.display = 'none';
+        const loadId = ++remindersLoadId;
+        nextRemindersToken = null;
+        updateLoadMoreReminders();
 
         try {
-            const reminders = await apiFetch(`${API_BASE_URL}/reminders/upcoming`); // Assuming this returns List<EmailMetadata>
+            const { reminders, nextToken } = await fetchUpcomingRemindersPage(null); // List of EmailMetadataSnapshot
+            if (loadId !== remindersLoadId) return;
             remindersListUL.innerHTML = '';
             if (reminders && reminders.length > 0) {
                 reminders.forEach(reminder => {
                     const reminderItemElement = createReminderItemElement(reminder);
                     remindersListUL.appendChild(reminderItemElement);
                 });
+                nextRemindersToken = nextToken;
+                updateLoadMoreReminders();
             } else if (reminders) { // Empty array
                 remindersListUL.innerHTML = ''; // Clear loading
                 noRemindersMessage.style.display = 'block';
@@ -0,0 +1,103 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.UserSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomOidcUserServiceTest {
+
+    private UserService userService;
+    private InboxSyncService inboxSyncService;
+    private CustomOAuth2UserService oauth2UserService;
+    private CustomOidcUserService oidcUserService;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        inboxSyncService = mock(InboxSyncService.class);
+        oauth2UserService = new CustomOAuth2UserService();
+        ReflectionTestUtils.setField(oauth2UserService, "appUserService", userService);
+        ReflectionTestUtils.setField(oauth2UserService, "inboxSyncService", inboxSyncService);
+        oidcUserService = new CustomOidcUserService(oauth2UserService);
+    }
+
+    @Test
+    void openidLoginReturnsPrincipalCarryingTheLocalUser() {
+        UserSnapshot snapshot = new UserSnapshot(42L, "google-123", "ada@example.com", "Ada");
+        when(userService.resolveLoginUser("google-123", "ada@example.com", "Ada")).thenReturn(snapshot);
+
+        OidcUser user = oidcUserService.loadUser(openidLoginRequest());
+
+        assertThat(user).isInstanceOf(MinderPrincipal.class);
+        assertThat(((MinderPrincipal) user).getInternalUserId()).isEqualTo(42L);
+        assertThat(user.getName()).isEqualTo("google-123");
+        assertThat(user.getEmail()).isEqualTo("ada@example.com");
+        assertThat(user.getAuthorities()).extracting(Object::toString).contains("ROLE_USER");
+        verify(userService).resolveLoginUser(eq("google-123"), eq("ada@example.com"), any());
+    }
+
+    @Test
+    void onlyConfiguredAdminsGetTheAdminRole() {
+        UserSnapshot snapshot = new UserSnapshot(42L, "google-123", "ada@example.com", "Ada");
+        when(userService.resolveLoginUser(any(), any(), any())).thenReturn(snapshot);
+
+        assertThat(oidcUserService.loadUser(openidLoginRequest()).getAuthorities())
+                .extracting(Object::toString).doesNotContain("ROLE_ADMIN");
+
+        ReflectionTestUtils.setField(oauth2UserService, "adminEmails", Set.of("ops@example.com", " ADA@example.com"));
+        assertThat(oidcUserService.loadUser(openidLoginRequest()).getAuthorities())
+                .extracting(Object::toString).contains("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void openidLoginPrefetchesTheInbox() {
+        UserSnapshot snapshot = new UserSnapshot(42L, "google-123", "ada@example.com", "Ada");
+        when(userService.resolveLoginUser(any(), any(), any())).thenReturn(snapshot);
+
+        OidcUserRequest request = openidLoginRequest();
+        oidcUserService.loadUser(request);
+
+        verify(inboxSyncService).prefetchOnLogin(42L, "google", "google-123", request.getAccessToken());
+    }
+
+    // No user-info URI is configured, so OidcUserService builds the user from the ID token without HTTP calls
+    private static OidcUserRequest openidLoginRequest() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("google")
+                .clientId("client-id")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .scope("openid", "profile", "email")
+                .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+                .tokenUri("https://oauth2.googleapis.com/token")
+                .userNameAttributeName("sub")
+                .build();
+        Instant now = Instant.now();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "access-token",
+                now, now.plusSeconds(3600), Set.of("openid", "profile", "email"));
+        OidcIdToken idToken = OidcIdToken.withTokenValue("id-token")
+                .subject("google-123")
+                .claim("email", "ada@example.com")
+                .claim("name", "Ada")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .build();
+        return new OidcUserRequest(registration, accessToken, idToken);
+    }
+}
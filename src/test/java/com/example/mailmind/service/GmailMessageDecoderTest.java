@@ -0,0 +1,98 @@
+package com.example.minder.service;
+
+import com.example.minder.dto.GmailMessageSummary;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GmailMessageDecoderTest {
+
+    @Test
+    void decodesRecordedMessagesGetResponse() throws IOException {
+        GmailMessageSummary summary;
+        try (InputStream content = getClass().getResourceAsStream("/gmail/messages-get-metadata.json")) {
+            assertThat(content).isNotNull();
+            summary = GmailMessageDecoder.decode(content, StandardCharsets.UTF_8);
+        }
+
+        assertThat(summary.id()).isEqualTo("18c2f0a9b7d41e3a");
+        assertThat(summary.subject()).isEqualTo("Quarterly review moved");
+        assertThat(summary.sender()).isEqualTo("Alice Example <alice@example.com>");
+        assertThat(summary.snippet()).isEqualTo("Hi team, the quarterly review is moved to Thursday at 10:00.");
+        assertThat(summary.date()).isEqualTo(Instant.ofEpochMilli(1701680520000L));
+    }
+
+    @Test
+    void fallsBackToPlaceholdersWhenHeadersAreMissing() throws IOException {
+        GmailMessageSummary summary = decode("""
+                {"id": "m1", "internalDate": "1000", "payload": {"mimeType": "text/plain", "headers": [
+                  {"name": "To", "value": "someone@example.com"}
+                ]}}
+                """);
+
+        assertThat(summary.subject()).isEqualTo(GmailMessageDecoder.NO_SUBJECT);
+        assertThat(summary.sender()).isEqualTo(GmailMessageDecoder.UNKNOWN_SENDER);
+        assertThat(summary.snippet()).isEmpty();
+        assertThat(summary.date()).isEqualTo(Instant.ofEpochMilli(1000L));
+    }
+
+    @Test
+    void fallsBackToPlaceholdersWithoutPayload() throws IOException {
+        GmailMessageSummary summary = decode("""
+                {"id": "m2", "snippet": null, "payload": null}
+                """);
+
+        assertThat(summary.id()).isEqualTo("m2");
+        assertThat(summary.subject()).isEqualTo(GmailMessageDecoder.NO_SUBJECT);
+        assertThat(summary.sender()).isEqualTo(GmailMessageDecoder.UNKNOWN_SENDER);
+        assertThat(summary.snippet()).isEmpty();
+        assertThat(summary.date()).isNull();
+    }
+
+    @Test
+    void decodesEmptyObject() throws IOException {
+        GmailMessageSummary summary = decode("{}");
+
+        assertThat(summary).isEqualTo(new GmailMessageSummary(null, GmailMessageDecoder.NO_SUBJECT,
+                GmailMessageDecoder.UNKNOWN_SENDER, "", null));
+    }
+
+    @Test
+    void skipsUnknownFieldsOfEveryShape() throws IOException {
+        GmailMessageSummary summary = decode("""
+                {"futureScalar": 7,
+                 "futureObject": {"id": "not-this-one", "nested": {"snippet": "nor this"}},
+                 "futureArray": [{"payload": {"headers": [{"name": "Subject", "value": "wrong"}]}}, 1, "x"],
+                 "id": "m3",
+                 "payload": {"unknown": {"a": [1, 2]}, "headers": [
+                   {"extra": {"deep": true}, "name": "subject", "value": "Lower-case header name"},
+                   {"value": "Value before name", "name": "FROM"}
+                 ], "parts": [{"headers": [{"name": "Subject", "value": "Nested part subject"}]}]},
+                 "snippet": "kept"}
+                """);
+
+        assertThat(summary.id()).isEqualTo("m3");
+        assertThat(summary.subject()).isEqualTo("Lower-case header name");
+        assertThat(summary.sender()).isEqualTo("Value before name");
+        assertThat(summary.snippet()).isEqualTo("kept");
+    }
+
+    @Test
+    void rejectsNonObjectResponse() {
+        assertThatThrownBy(() -> decode("[]"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("not a JSON object");
+    }
+
+    private static GmailMessageSummary decode(String json) throws IOException {
+        return GmailMessageDecoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8);
+    }
+}
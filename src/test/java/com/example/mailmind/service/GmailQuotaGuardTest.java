@@ -0,0 +1,188 @@
+package com.example.minder.service;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GmailQuotaGuardTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Starts near the top of the long range so the breaker's deadline arithmetic has to survive wrap-around
+    private final AtomicLong nanos = new AtomicLong(Long.MAX_VALUE - 10 * ONE_SECOND);
+
+    @Test
+    void bucketStartsWithOneSecondOfBurst() {
+        GmailQuotaGuard.TokenBucket bucket = new GmailQuotaGuard.TokenBucket(10, nanos::get);
+
+        assertThat(bucket.reserve(10)).isZero();
+        assertThat(bucket.reserve(5)).isEqualTo(ONE_SECOND / 2);
+    }
+
+    @Test
+    void bucketRefillsAtItsRate() {
+        GmailQuotaGuard.TokenBucket bucket = new GmailQuotaGuard.TokenBucket(10, nanos::get);
+        bucket.reserve(10);
+
+        advance(ONE_SECOND / 2);
+
+        assertThat(bucket.reserve(5)).isZero();
+        assertThat(bucket.reserve(2)).isEqualTo(ONE_SECOND / 5);
+    }
+
+    @Test
+    void bucketNeverStoresMoreThanOneSecondOfTokens() {
+        GmailQuotaGuard.TokenBucket bucket = new GmailQuotaGuard.TokenBucket(10, nanos::get);
+
+        advance(60 * ONE_SECOND);
+
+        assertThat(bucket.reserve(10)).isZero();
+        assertThat(bucket.reserve(1)).isEqualTo(ONE_SECOND / 10);
+    }
+
+    @Test
+    void refundIsCappedAtBurst() {
+        GmailQuotaGuard.TokenBucket bucket = new GmailQuotaGuard.TokenBucket(10, nanos::get);
+        bucket.reserve(4);
+
+        bucket.refund(20);
+
+        assertThat(bucket.reserve(10)).isZero();
+        assertThat(bucket.reserve(1)).isGreaterThan(0L);
+    }
+
+    @Test
+    void slowDownHalvesTheRateDownToAFloorAndSpeedUpRecoversGradually() {
+        GmailQuotaGuard.TokenBucket bucket = new GmailQuotaGuard.TokenBucket(100, nanos::get);
+        bucket.reserve(100);
+
+        bucket.slowDown();
+        assertThat(bucket.reserve(50)).isEqualTo(ONE_SECOND);
+
+        for (int i = 0; i < 10; i++) {
+            bucket.slowDown();
+        }
+        advance(ONE_SECOND);
+        // Floor of 10 units/s; the 50-unit debt is still being paid off
+        assertThat(bucket.reserve(0)).isEqualTo(4 * ONE_SECOND);
+
+        bucket.speedUp();
+        advance(4 * ONE_SECOND);
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.isIdle()).isFalse();
+    }
+
+    @Test
+    void bucketIsIdleOnlyWhenFullAtFullRate() {
+        GmailQuotaGuard.TokenBucket bucket = new GmailQuotaGuard.TokenBucket(10, nanos::get);
+        assertThat(bucket.isIdle()).isTrue();
+
+        bucket.reserve(1);
+        assertThat(bucket.isIdle()).isFalse();
+
+        advance(ONE_SECOND);
+        assertThat(bucket.isIdle()).isTrue();
+    }
+
+    @Test
+    void circuitOpensAfterThresholdFailuresAndRejectsCallsWithoutRunningThem() throws IOException {
+        GmailQuotaGuard guard = guard(3, 30);
+        AtomicInteger calls = new AtomicInteger();
+
+        failTimes(guard, 2, calls);
+        assertThat(guard.isCircuitOpen()).isFalse();
+        failTimes(guard, 1, calls);
+        assertThat(guard.isCircuitOpen()).isTrue();
+
+        assertThatThrownBy(() -> guard.execute(1L, 1, () -> calls.incrementAndGet()))
+                .isInstanceOf(GmailUnavailableException.class);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void circuitLetsCallsThroughAfterCoolDownAndReopensOnTheNextFailure() throws IOException {
+        GmailQuotaGuard guard = guard(3, 30);
+        AtomicInteger calls = new AtomicInteger();
+        failTimes(guard, 3, calls);
+
+        advance(29 * ONE_SECOND);
+        assertThat(guard.isCircuitOpen()).isTrue();
+        advance(ONE_SECOND);
+        assertThat(guard.isCircuitOpen()).isFalse();
+
+        // Half-open: one more failure is enough to open it again
+        failTimes(guard, 1, calls);
+        assertThat(guard.isCircuitOpen()).isTrue();
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void successAfterCoolDownClosesTheCircuit() throws IOException {
+        GmailQuotaGuard guard = guard(3, 30);
+        AtomicInteger calls = new AtomicInteger();
+        failTimes(guard, 3, calls);
+        advance(30 * ONE_SECOND);
+
+        assertThat(guard.execute(1L, 1, () -> "ok")).isEqualTo("ok");
+
+        failTimes(guard, 2, calls);
+        assertThat(guard.isCircuitOpen()).isFalse();
+        failTimes(guard, 1, calls);
+        assertThat(guard.isCircuitOpen()).isTrue();
+    }
+
+    @Test
+    void clientErrorsDoNotCountTowardsTheCircuit() throws IOException {
+        GmailQuotaGuard guard = guard(1, 30);
+        HttpResponseException notFound = new HttpResponseException.Builder(404, "Not Found", new HttpHeaders()).build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> guard.execute(1L, 1, () -> {
+                throw notFound;
+            })).isSameAs(notFound);
+        }
+
+        assertThat(guard.isCircuitOpen()).isFalse();
+    }
+
+    @Test
+    void quotaThatCannotBeReservedInTimeIsRefusedAndRefunded() throws IOException {
+        // 10 units/s per user, at most 2 s of waiting
+        GmailQuotaGuard guard = new GmailQuotaGuard(10, 1000, 2000, 1, 0, 0, 3, 30, nanos::get);
+        guard.execute(1L, 10, () -> "burst");
+
+        assertThatThrownBy(() -> guard.execute(1L, 25, () -> "too much"))
+                .isInstanceOf(GmailUnavailableException.class);
+
+        // The refused reservation was handed back, so a full second later the burst is available again
+        advance(ONE_SECOND);
+        assertThat(guard.execute(1L, 10, () -> "again")).isEqualTo("again");
+    }
+
+    // Single attempt per call so no backoff sleeps; buckets large enough that quota never waits
+    private GmailQuotaGuard guard(int failureThreshold, long openSeconds) {
+        return new GmailQuotaGuard(1000, 1000, 2000, 1, 0, 0, failureThreshold, openSeconds, nanos::get);
+    }
+
+    private static void failTimes(GmailQuotaGuard guard, int times, AtomicInteger calls) {
+        for (int i = 0; i < times; i++) {
+            assertThatThrownBy(() -> guard.execute(1L, 1, () -> {
+                calls.incrementAndGet();
+                throw new SocketTimeoutException("Read timed out");
+            })).isInstanceOf(SocketTimeoutException.class);
+        }
+    }
+
+    private void advance(long deltaNanos) {
+        nanos.addAndGet(deltaNanos);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.minder.service;
+
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryLabelAdded;
+import com.google.api.services.gmail.model.HistoryLabelRemoved;
+import com.google.api.services.gmail.model.HistoryMessageAdded;
+import com.google.api.services.gmail.model.HistoryMessageDeleted;
+import com.google.api.services.gmail.model.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InboxChangesTest {
+
+    private static final List<String> IMPORTANT_INBOX = List.of("INBOX", "IMPORTANT");
+
+    private final GmailService.InboxChanges changes = new GmailService.InboxChanges();
+
+    @Test
+    void noChangesKeepsThePage() {
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 3)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void addedMessagesGoOnTopNewestFirst() {
+        changes.record(messagesAdded("n1", "n2"));
+        changes.record(messagesAdded("n3"));
+
+        assertThat(changes.applyTo(List.of("a", "b"), 10)).containsExactly("n3", "n2", "n1", "a", "b");
+    }
+
+    @Test
+    void pageIsTrimmedToMaxResults() {
+        changes.record(messagesAdded("n1", "n2"));
+
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 3)).containsExactly("n2", "n1", "a");
+    }
+
+    @Test
+    void messagesOutsideTheImportantInboxAreIgnored() {
+        changes.record(new History().setMessagesAdded(List.of(
+                new HistoryMessageAdded().setMessage(new Message().setId("spam").setLabelIds(List.of("SPAM"))),
+                new HistoryMessageAdded().setMessage(new Message().setId("plain").setLabelIds(List.of("INBOX"))),
+                new HistoryMessageAdded().setMessage(new Message().setId("unlabelled")))));
+
+        assertThat(changes.applyTo(List.of("a"), 10)).containsExactly("a");
+    }
+
+    @Test
+    void duplicateAddsAppearOnceAtTheirLatestPosition() {
+        changes.record(messagesAdded("n1", "n2"));
+        // n1 reported again later, this time through a label change
+        changes.record(new History().setLabelsAdded(List.of(
+                new HistoryLabelAdded().setLabelIds(List.of("IMPORTANT")).setMessage(importantInbox("n1")))));
+        changes.record(messagesAdded("n1"));
+
+        assertThat(changes.applyTo(List.of("a"), 10)).containsExactly("n1", "n2", "a");
+    }
+
+    @Test
+    void reAddedMessageAlreadyOnThePageKeepsItsPlace() {
+        changes.record(messagesAdded("b"));
+
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 3)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void unrelatedLabelAddedToAMessageOnThePageDoesNotReorderIt() {
+        changes.record(labelsAdded("c", "STARRED"));
+        changes.record(labelsAdded("b", "UNREAD", "Label_42"));
+
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 3)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void unrelatedLabelAddedToAMessageOffThePageIsNotAnArrival() {
+        changes.record(labelsAdded("older", "STARRED"));
+
+        assertThat(changes.applyTo(List.of("a", "b"), 10)).containsExactly("a", "b");
+    }
+
+    @Test
+    void inboxLabelAddedBringsAMessageIn() {
+        changes.record(labelsAdded("unarchived", "INBOX"));
+
+        assertThat(changes.applyTo(List.of("a", "b"), 10)).containsExactly("unarchived", "a", "b");
+    }
+
+    @Test
+    void deleteOfMessageNotOnThePageLeavesFullPageIntact() {
+        changes.record(messagesDeleted("elsewhere"));
+
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 3)).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void deleteOfMessageOnAShortPageRemovesIt() {
+        changes.record(messagesDeleted("b"));
+
+        assertThat(changes.applyTo(List.of("a", "b"), 10)).containsExactly("a");
+    }
+
+    @Test
+    void deleteThatLeavesAFullPageShortNeedsAFullListing() {
+        changes.record(messagesDeleted("b"));
+
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 3)).isNull();
+    }
+
+    @Test
+    void deleteBalancedByAnAddKeepsTheFullPage() {
+        changes.record(messagesAdded("n1"));
+        changes.record(messagesDeleted("b"));
+
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 3)).containsExactly("n1", "a", "c");
+    }
+
+    @Test
+    void messageAddedThenDeletedIsNotShown() {
+        changes.record(messagesAdded("n1"));
+        changes.record(messagesDeleted("n1"));
+
+        assertThat(changes.applyTo(List.of("a"), 10)).containsExactly("a");
+    }
+
+    @Test
+    void messageDeletedThenAddedBackIsShown() {
+        changes.record(messagesDeleted("a"));
+        changes.record(messagesAdded("a"));
+
+        assertThat(changes.applyTo(List.of("a", "b"), 10)).containsExactly("a", "b");
+    }
+
+    @Test
+    void removingInboxOrImportantLabelTakesTheMessageOff() {
+        changes.record(new History().setLabelsRemoved(List.of(
+                new HistoryLabelRemoved().setLabelIds(List.of("INBOX")).setMessage(new Message().setId("a")),
+                new HistoryLabelRemoved().setLabelIds(List.of("IMPORTANT")).setMessage(new Message().setId("b")),
+                new HistoryLabelRemoved().setLabelIds(List.of("UNREAD")).setMessage(new Message().setId("c")))));
+
+        assertThat(changes.applyTo(List.of("a", "b", "c"), 10)).containsExactly("c");
+    }
+
+    private static History messagesAdded(String... messageIds) {
+        return new History().setMessagesAdded(Arrays.stream(messageIds)
+                .map(id -> new HistoryMessageAdded().setMessage(importantInbox(id)))
+                .toList());
+    }
+
+    private static History labelsAdded(String messageId, String... labelIds) {
+        return new History().setLabelsAdded(List.of(
+                new HistoryLabelAdded().setLabelIds(List.of(labelIds)).setMessage(importantInbox(messageId))));
+    }
+
+    private static History messagesDeleted(String... messageIds) {
+        return new History().setMessagesDeleted(Arrays.stream(messageIds)
+                .map(id -> new HistoryMessageDeleted().setMessage(new Message().setId(id)))
+                .toList());
+    }
+
+    private static Message importantInbox(String messageId) {
+        return new Message().setId(messageId).setLabelIds(IMPORTANT_INBOX);
+    }
+}